@@ -0,0 +1,200 @@
+package com.sahlas.benchmarks;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.Tracing;
+import com.microsoft.playwright.options.Cookie;
+import com.sahlas.fixtures.ScenarioTracingFixtures;
+import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.standin.StandInServer;
+import com.sahlas.swaglabs.catalog.SwagLabsCatalog;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.TestResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the operations every scenario pays for: creating contexts and pages, full-page screenshots,
+ * reading the inventory one locator at a time or in a single evaluation, and tracing a scenario with the
+ * TRACE_CAPTURE options of ScenarioTracingFixtures, with the chunk discarded or written.
+ * The pages are served by an embedded {@link StandInServer} without latency, so the numbers reflect the
+ * browser and fixture cost only and are comparable between runs.
+ * <p>
+ * Run with {@code mvn -Pjmh test-compile exec:exec}, passing JMH options through {@code -Djmh.args="..."}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FixtureBenchmarks {
+
+    @Param({"6", "100"})
+    public int catalogSize;
+
+    private StandInServer server;
+    private Playwright playwright;
+    private Browser browser;
+    private BrowserContext context;
+    private Page inventoryPage;
+    private Page cartPage;
+    private String testCaseUuid;
+    private Path tracePath;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = new StandInServer(0, SwagLabsCatalog.ofSize(catalogSize), Map.of(), 0).start();
+        playwright = Playwright.create();
+        playwright.selectors().setTestIdAttribute("data-test");
+        browser = playwright.chromium().launch(
+                new BrowserType.LaunchOptions()
+                        .setHeadless(true)
+                        .setArgs(Arrays.asList("--no-sandbox", "--disable-extensions", "--disable-gpu"))
+        );
+
+        context = browser.newContext();
+        context.addCookies(List.of(new Cookie("session-username", "standard_user").setUrl(server.baseUrl())));
+        // Put the first three products in the cart so the cart page has line items to render
+        context.addInitScript("localStorage.setItem('cart-contents', '[4,0,1]')");
+        inventoryPage = context.newPage();
+        inventoryPage.navigate(server.baseUrl() + "inventory.html");
+        cartPage = context.newPage();
+        cartPage.navigate(server.baseUrl() + "cart.html");
+
+        try {
+            tracePath = Files.createTempFile("benchmark-trace", ".zip");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Screenshots are attached to the current Allure test case, so give them one
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        testCaseUuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(testCaseUuid).setName("FixtureBenchmarks"));
+        lifecycle.startTestCase(testCaseUuid);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ScreenshotManager.flush();
+        Allure.getLifecycle().stopTestCase(testCaseUuid);
+        context.close();
+        browser.close();
+        playwright.close();
+        server.stop();
+        try {
+            Files.deleteIfExists(tracePath);
+        } catch (IOException e) {
+            System.out.println("Failed to delete " + tracePath + ": " + e.getMessage());
+        }
+    }
+
+    @Benchmark
+    public void newContext() {
+        browser.newContext().close();
+    }
+
+    @Benchmark
+    public void newPage() {
+        inventoryPage.context().newPage().close();
+    }
+
+    @Benchmark
+    public byte[] rawFullPageScreenshot() {
+        return inventoryPage.screenshot(new Page.ScreenshotOptions().setFullPage(true));
+    }
+
+    @Benchmark
+    public void takeScreenshot() {
+        ScreenshotManager.takeScreenshot(inventoryPage, "benchmark-inventory");
+    }
+
+    @Benchmark
+    public void takeScreenshotAndFlush() {
+        ScreenshotManager.takeScreenshot(inventoryPage, "benchmark-inventory");
+        ScreenshotManager.flush();
+    }
+
+    @Benchmark
+    public void inventoryNamesByLocator(Blackhole blackhole) {
+        Locator names = inventoryPage.getByTestId("inventory-item-name");
+        int count = names.count();
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(names.nth(i).textContent());
+        }
+    }
+
+    @Benchmark
+    public Object inventoryNamesByEvaluate() {
+        return inventoryPage.getByTestId("inventory-item-name")
+                .evaluateAll("elements => elements.map(element => element.textContent)");
+    }
+
+    @Benchmark
+    public List<String> cartLineItemsByLocator() {
+        List<String> lineItems = new ArrayList<>();
+        Locator items = cartPage.getByTestId("cart-list").getByTestId("inventory-item");
+        int count = items.count();
+        for (int i = 0; i < count; i++) {
+            Locator item = items.nth(i);
+            lineItems.add(item.getByTestId("inventory-item-name").textContent()
+                    + item.getByTestId("item-quantity").textContent()
+                    + item.getByTestId("inventory-item-price").textContent());
+        }
+        return lineItems;
+    }
+
+    @Benchmark
+    public Object cartLineItemsByEvaluate() {
+        return cartPage.getByTestId("cart-list").getByTestId("inventory-item").evaluateAll(
+                "items => items.map(item => ["
+                        + "item.querySelector('[data-test=\"inventory-item-name\"]').textContent,"
+                        + "item.querySelector('[data-test=\"item-quantity\"]').textContent,"
+                        + "item.querySelector('[data-test=\"inventory-item-price\"]').textContent])");
+    }
+
+    @Benchmark
+    public void tracingPassedScenario() {
+        // The calls ScenarioTracingFixtures makes for a passing scenario under TRACE_MODE=on-failure
+        Tracing tracing = context.tracing();
+        tracing.start(ScenarioTracingFixtures.startOptions());
+        tracing.startChunk(new Tracing.StartChunkOptions().setTitle("benchmark"));
+        inventoryPage.getByTestId("inventory-item-name").first().textContent();
+        tracing.stopChunk();
+        tracing.stop();
+    }
+
+    @Benchmark
+    public void tracingFailedScenario() {
+        // As above, but the chunk is written to a zip the way it is for a failed scenario
+        Tracing tracing = context.tracing();
+        tracing.start(ScenarioTracingFixtures.startOptions());
+        tracing.startChunk(new Tracing.StartChunkOptions().setTitle("benchmark"));
+        inventoryPage.getByTestId("inventory-item-name").first().textContent();
+        tracing.stopChunk(new Tracing.StopChunkOptions().setPath(tracePath));
+        tracing.stop();
+    }
+}
@@ -0,0 +1,365 @@
+package com.sahlas.cucumber.impact;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.spi.ToolProvider;
+import java.util.stream.Stream;
+
+/**
+ * CallGraph is a static call graph of the project's own test classes, read from their bytecode with javap.
+ * Methods are identified as {@code com/sahlas/Class.method}; overloads share one node, which only makes the
+ * analysis more conservative. Lambdas and method references count as calls, from the method that creates them, of
+ * the method handles in the bootstrap arguments of their invokedynamic. A call of a method also reaches the
+ * method a subclass overrides it with, or the superclass method it inherits, since the receiver is only known at
+ * run time. Reading a static field of a project class counts as a call of that class's static initializer.
+ * For each method the graph also keeps the source lines it spans, so changed lines can be mapped to methods:
+ * from its first to its last line, except for constructors and static initializers, whose field initializer
+ * lines are spread over the class and are matched exactly.
+ */
+public class CallGraph {
+    private static final String PROJECT_PACKAGE = "com/sahlas/";
+    private static final Pattern METHOD_HEADER = Pattern.compile("^ {2}(?:[\\w$.<>\\[\\], ?]+ )?([\\w$.]+)\\(.*\\)(?: throws .*)?;$");
+    private static final Pattern CALL = Pattern.compile("// (?:Method|InterfaceMethod) (?:([\\w/$]+)\\.)?\"?([\\w$<>]+)\"?:");
+    private static final Pattern STATIC_FIELD = Pattern.compile("(?:getstatic|putstatic) .*// Field ([\\w/$]+)\\.[\\w$]+:");
+    private static final Pattern INVOKE_DYNAMIC = Pattern.compile("// InvokeDynamic #(\\d+):");
+    private static final Pattern BOOTSTRAP_METHOD = Pattern.compile("^ {2}(\\d+): #\\d+ ");
+    private static final Pattern METHOD_HANDLE = Pattern.compile("^ {6}#\\d+ REF_(?:invoke\\w+|newInvokeSpecial) ([\\w/$]+)\\.\"?([\\w$<>]+)\"?:");
+    private static final Pattern LINE = Pattern.compile("^ {8}line (\\d+): \\d+$");
+
+    private final Map<String, Set<String>> calls = new HashMap<>();
+    // Source line ranges of every method, per class: one per overload, or one per line for initializers
+    private final Map<String, Map<String, List<int[]>>> lines = new HashMap<>();
+    private final Map<String, String> sourceFiles = new HashMap<>();
+    // Direct project supertypes and the method names declared, abstract ones included, per class
+    private final Map<String, Set<String>> supertypes = new HashMap<>();
+    private final Map<String, Set<String>> declaredMethods = new HashMap<>();
+
+    private CallGraph() {
+    }
+
+    /**
+     * Reads every class of the project below a class output directory.
+     *
+     * @param classesDirectory The directory holding the compiled classes, e.g. target/test-classes.
+     * @return The call graph, or empty if javap is not available in this JDK.
+     * @throws IOException if the class files cannot be listed or read, or an invokedynamic cannot be resolved.
+     */
+    public static Optional<CallGraph> read(Path classesDirectory) throws IOException {
+        Optional<ToolProvider> javap = ToolProvider.findFirst("javap");
+        if (javap.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> classFiles;
+        try (Stream<Path> files = Files.walk(classesDirectory.resolve(PROJECT_PACKAGE))) {
+            classFiles = files.filter(file -> file.toString().endsWith(".class"))
+                    .map(Path::toString)
+                    .toList();
+        }
+        // -v adds the bootstrap methods, whose arguments name the targets of lambdas and method references
+        List<String> arguments = new ArrayList<>(List.of("-v", "-p"));
+        arguments.addAll(classFiles);
+        StringWriter output = new StringWriter();
+        StringWriter errors = new StringWriter();
+        int status = javap.get().run(new PrintWriter(output), new PrintWriter(errors), arguments.toArray(String[]::new));
+        if (status != 0) {
+            throw new IOException("javap failed: " + errors);
+        }
+        CallGraph graph = new CallGraph();
+        String unresolved = graph.parse(output.toString());
+        if (unresolved != null) {
+            throw new IOException("Unresolved invokedynamic in " + unresolved.replace('/', '.'));
+        }
+        graph.addOverrides();
+        return Optional.of(graph);
+    }
+
+    /**
+     * Finds the classes compiled from a source file.
+     *
+     * @param sourcePath The path of the source file relative to the source root, e.g. com/sahlas/Foo.java.
+     * @return The internal names of the top-level and nested classes declared in the file.
+     */
+    public Set<String> classesOf(String sourcePath) {
+        String packageName = sourcePath.contains("/") ? sourcePath.substring(0, sourcePath.lastIndexOf('/') + 1) : "";
+        String fileName = sourcePath.substring(sourcePath.lastIndexOf('/') + 1);
+        Set<String> classes = new HashSet<>();
+        sourceFiles.forEach((className, source) -> {
+            if (source.equals(fileName) && className.startsWith(packageName)
+                    && className.indexOf('/', packageName.length()) < 0) {
+                classes.add(className);
+            }
+        });
+        return classes;
+    }
+
+    /**
+     * Finds the methods of a class that span any of the given source lines.
+     *
+     * @param className    The internal class name.
+     * @param changedLines The source lines.
+     * @return The methods covering at least one of the lines.
+     */
+    public Set<String> methodsAt(String className, Set<Integer> changedLines) {
+        Set<String> methods = new HashSet<>();
+        lines.getOrDefault(className, Map.of()).forEach((method, ranges) -> {
+            for (int[] range : ranges) {
+                for (int line : changedLines) {
+                    if (line >= range[0] && line <= range[1]) {
+                        methods.add(method);
+                        return;
+                    }
+                }
+            }
+        });
+        return methods;
+    }
+
+    /**
+     * Lists every method of a class.
+     *
+     * @param className The internal class name.
+     * @return The methods declared in the class.
+     */
+    public Set<String> methodsOf(String className) {
+        return lines.getOrDefault(className, Map.of()).keySet();
+    }
+
+    /**
+     * Computes every project method that a method calls, directly or indirectly, including itself.
+     *
+     * @param method The method node.
+     * @return The reachable method nodes.
+     */
+    public Set<String> reachableFrom(String method) {
+        Set<String> reached = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(method));
+        while (!pending.isEmpty()) {
+            String next = pending.pop();
+            if (reached.add(next)) {
+                pending.addAll(calls.getOrDefault(next, Set.of()));
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Builds the node of a method.
+     *
+     * @param className  The internal class name, e.g. com/sahlas/Foo.
+     * @param methodName The method name; {@code <init>} for constructors.
+     * @return The method node.
+     */
+    public static String node(String className, String methodName) {
+        return className + "." + methodName;
+    }
+
+    // Returns the first class with an invokedynamic missing from its bootstrap methods, or null
+    private String parse(String javapOutput) {
+        String source = null;
+        String className = null;
+        String method = null;
+        int[] range = null;
+        boolean inLineTable = false;
+        boolean inBody = false;
+        // The bootstrap methods follow the class body, so the methods using each one are collected first
+        Map<Integer, Set<String>> dynamicCallers = new HashMap<>();
+        boolean inBootstrapMethods = false;
+        Set<String> bootstrapCallers = Set.of();
+        String unresolved = null;
+        for (String line : javapOutput.split("\\R")) {
+            if (line.startsWith("  Compiled from \"")) {
+                if (unresolved == null && !dynamicCallers.isEmpty()) {
+                    unresolved = className;
+                }
+                source = line.substring("  Compiled from \"".length(), line.length() - 1);
+                className = null;
+                method = null;
+                inBody = false;
+                dynamicCallers = new HashMap<>();
+                inBootstrapMethods = false;
+                continue;
+            }
+            if (className == null) {
+                // The class declaration follows its source file
+                if (source != null && !line.isBlank()) {
+                    className = classNameOf(line);
+                    sourceFiles.put(className, source);
+                    supertypes.put(className, supertypesOf(line));
+                }
+                continue;
+            }
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (!line.startsWith(" ")) {
+                // The constant pool precedes the class body between braces, the class attributes follow it
+                inBody = line.equals("{");
+                inBootstrapMethods = line.equals("BootstrapMethods:");
+                method = null;
+                continue;
+            }
+            if (inBootstrapMethods) {
+                Matcher bootstrap = BOOTSTRAP_METHOD.matcher(line);
+                if (bootstrap.find()) {
+                    bootstrapCallers = dynamicCallers.remove(Integer.parseInt(bootstrap.group(1)));
+                    continue;
+                }
+                Matcher handle = METHOD_HANDLE.matcher(line);
+                if (handle.find() && handle.group(1).startsWith(PROJECT_PACKAGE) && bootstrapCallers != null) {
+                    bootstrapCallers.forEach(caller -> addCall(caller, node(handle.group(1), handle.group(2))));
+                }
+                continue;
+            }
+            if (!inBody) {
+                continue;
+            }
+            if (line.equals("  static {};")) {
+                method = node(className, "<clinit>");
+                range = null;
+                inLineTable = false;
+                continue;
+            }
+            Matcher header = METHOD_HEADER.matcher(line);
+            if (header.matches()) {
+                String name = header.group(1);
+                method = node(className, name.contains(".") ? "<init>" : name);
+                declaredMethods.computeIfAbsent(className, key -> new HashSet<>()).add(method.substring(className.length() + 1));
+                range = null;
+                inLineTable = false;
+                continue;
+            }
+            if (method == null) {
+                continue;
+            }
+            if (line.equals("      LineNumberTable:")) {
+                inLineTable = true;
+                continue;
+            }
+            if (inLineTable) {
+                Matcher lineNumber = LINE.matcher(line);
+                if (lineNumber.matches()) {
+                    int number = Integer.parseInt(lineNumber.group(1));
+                    String methodName = method.substring(className.length() + 1);
+                    List<int[]> ranges = lines.computeIfAbsent(className, name -> new TreeMap<>())
+                            .computeIfAbsent(methodName, name -> new ArrayList<>());
+                    if (range == null || methodName.startsWith("<")) {
+                        range = new int[]{number, number};
+                        ranges.add(range);
+                    }
+                    range[0] = Math.min(range[0], number);
+                    range[1] = Math.max(range[1], number);
+                    continue;
+                }
+                inLineTable = false;
+            }
+            Matcher call = CALL.matcher(line);
+            if (call.find()) {
+                String owner = call.group(1) == null ? className : call.group(1);
+                if (owner.startsWith(PROJECT_PACKAGE)) {
+                    addCall(method, node(owner, call.group(2)));
+                }
+                continue;
+            }
+            Matcher dynamicCall = INVOKE_DYNAMIC.matcher(line);
+            if (dynamicCall.find()) {
+                dynamicCallers.computeIfAbsent(Integer.parseInt(dynamicCall.group(1)), index -> new HashSet<>()).add(method);
+                continue;
+            }
+            Matcher staticField = STATIC_FIELD.matcher(line);
+            if (staticField.find() && staticField.group(1).startsWith(PROJECT_PACKAGE)) {
+                addCall(method, node(staticField.group(1), "<clinit>"));
+            }
+        }
+        if (unresolved == null && !dynamicCallers.isEmpty()) {
+            unresolved = className;
+        }
+        return unresolved;
+    }
+
+    private void addCall(String caller, String callee) {
+        calls.computeIfAbsent(caller, name -> new HashSet<>()).add(callee);
+    }
+
+    // A call names the static type of the receiver: it may run an override declared by any subtype, or the
+    // method the type inherits from a supertype
+    private void addOverrides() {
+        Map<String, Set<String>> subtypes = new HashMap<>();
+        supertypes.forEach((type, supers) -> supers.forEach(
+                superType -> subtypes.computeIfAbsent(superType, key -> new HashSet<>()).add(type)));
+        calls.values().forEach(callees -> {
+            Set<String> dispatched = new HashSet<>();
+            for (String callee : callees) {
+                String owner = callee.substring(0, callee.lastIndexOf('.'));
+                String name = callee.substring(owner.length() + 1);
+                if (!name.startsWith("<")) {
+                    collectDeclaring(subtypes, owner, name, true, dispatched);
+                    if (!declares(owner, name)) {
+                        collectDeclaring(supertypes, owner, name, false, dispatched);
+                    }
+                }
+            }
+            callees.addAll(dispatched);
+        });
+    }
+
+    // Walks the hierarchy from a type, adding the types that declare the method; the search for an inherited
+    // method stops at the first declaring type of each branch, the search for overrides does not
+    private void collectDeclaring(Map<String, Set<String>> hierarchy, String type, String name, boolean overrides,
+                                  Set<String> found) {
+        for (String next : hierarchy.getOrDefault(type, Set.of())) {
+            boolean declared = declares(next, name);
+            if (declared) {
+                found.add(node(next, name));
+            }
+            if (overrides || !declared) {
+                collectDeclaring(hierarchy, next, name, overrides, found);
+            }
+        }
+    }
+
+    private boolean declares(String className, String methodName) {
+        return declaredMethods.getOrDefault(className, Set.of()).contains(methodName);
+    }
+
+    private static String classNameOf(String declaration) {
+        for (String token : declaration.split("[\\s{<]+")) {
+            if (token.contains(".")) {
+                return token.replace('.', '/');
+            }
+        }
+        throw new IllegalStateException("Unexpected javap class declaration: " + declaration);
+    }
+
+    // The project classes and interfaces named after extends and implements, without type arguments
+    private static Set<String> supertypesOf(String declaration) {
+        String raw = declaration;
+        while (raw.contains("<")) {
+            raw = raw.replaceAll("<[^<>]*>", "");
+        }
+        Set<String> supertypes = new HashSet<>();
+        boolean afterKeyword = false;
+        for (String token : raw.split("[\\s,{]+")) {
+            if (token.equals("extends") || token.equals("implements")) {
+                afterKeyword = true;
+            } else if (afterKeyword && token.replace('.', '/').startsWith(PROJECT_PACKAGE)) {
+                supertypes.add(token.replace('.', '/'));
+            }
+        }
+        return supertypes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sahlas.cucumber.impact;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads the call graph of the compiled test classes and checks the edges javap does not print as plain calls,
+ * using the fixture classes below.
+ */
+class CallGraphTest {
+    private static CallGraph graph;
+
+    @BeforeAll
+    static void readGraph() throws Exception {
+        Path classes = Path.of(CallGraphTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        graph = CallGraph.read(classes).orElseThrow();
+    }
+
+    @Test
+    void methodReferenceCallsItsTarget() {
+        assertThat(graph.reachableFrom(node(Totals.class, "sum")))
+                .contains(node(Totals.class, "add"));
+    }
+
+    @Test
+    void lambdaCallsWhatItsBodyCalls() {
+        assertThat(graph.reachableFrom(node(Totals.class, "sumOfSquares")))
+                .contains(node(Totals.class, "square"));
+    }
+
+    @Test
+    void virtualCallReachesOverrides() {
+        assertThat(graph.reachableFrom(node(Shape.class, "describe")))
+                .contains(node(Square.class, "area"), node(Square.class, "side"));
+    }
+
+    @Test
+    void callOnSubclassReachesInheritedMethod() {
+        assertThat(graph.reachableFrom(node(CallGraphTest.class, "labelOf")))
+                .contains(node(Shape.class, "label"));
+    }
+
+    private static String node(Class<?> type, String method) {
+        return CallGraph.node(type.getName().replace('.', '/'), method);
+    }
+
+    static String labelOf(Square square) {
+        return square.label();
+    }
+
+    static final class Totals {
+        static int add(int left, int right) {
+            return left + right;
+        }
+
+        int sum(List<Integer> values) {
+            return values.stream().reduce(0, Totals::add);
+        }
+
+        int sumOfSquares(List<Integer> values) {
+            return values.stream().mapToInt(value -> square(value)).sum();
+        }
+
+        private static int square(int value) {
+            return value * value;
+        }
+    }
+
+    abstract static class Shape {
+        abstract int area();
+
+        String describe() {
+            return "area " + area();
+        }
+
+        String label() {
+            return "shape";
+        }
+    }
+
+    static final class Square extends Shape {
+        @Override
+        int area() {
+            return side() * side();
+        }
+
+        private int side() {
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.sahlas.cucumber.impact;
+
+import com.sahlas.cucumber.sharding.ScenarioHistory;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FileSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImpactFilter runs only the tests affected by the changes since IMPACT_BASE (a git revision, e.g. origin/main),
+ * as selected by the {@link TestImpactAnalyzer}. When IMPACT_BASE is blank every test runs.
+ * The selection is computed once per JVM, printed, and written to IMPACT_REPORT (target/impacted-tests.txt).
+ * <p>
+ * Registered through META-INF/services next to the ScenarioShardFilter, so it applies to every launcher, including
+ * the {@code @Suite} runner. IMPACT_BASE is read from a system property, falling back to the environment.
+ */
+public class ImpactFilter implements PostDiscoveryFilter {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String IMPACT_BASE = System.getProperty("IMPACT_BASE", dotenv.get("IMPACT_BASE", ""));
+    private static final String IMPACT_REPORT = dotenv.get("IMPACT_REPORT", "target/impacted-tests.txt");
+
+    private static TestImpactAnalyzer.Selection selection;
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (IMPACT_BASE.isBlank() || !descriptor.isTest()) {
+            return FilterResult.included("No impact analysis");
+        }
+        TestImpactAnalyzer.Selection selected = selection();
+        if (selected.all()) {
+            return FilterResult.included(selected.reason());
+        }
+        TestSource source = descriptor.getSource().orElse(null);
+        if (source instanceof ClasspathResourceSource resource && resource.getPosition().isPresent()) {
+            return select(selected.scenarios().contains(
+                    ScenarioHistory.key(resource.getClasspathResourceName(), resource.getPosition().get().getLine())));
+        }
+        if (source instanceof FileSource file && file.getPosition().isPresent()) {
+            return select(selected.scenarios().contains(
+                    ScenarioHistory.key(file.getFile().toURI().getPath(), file.getPosition().get().getLine())));
+        }
+        if (source instanceof MethodSource method) {
+            return select(selected.testClasses().contains(method.getClassName()));
+        }
+        if (source instanceof ClassSource testClass) {
+            return select(selected.testClasses().contains(testClass.getClassName()));
+        }
+        return FilterResult.included("Not analyzed");
+    }
+
+    private static FilterResult select(boolean affected) {
+        return affected
+                ? FilterResult.included("Affected by the changes since " + IMPACT_BASE)
+                : FilterResult.excluded("Not affected by the changes since " + IMPACT_BASE);
+    }
+
+    private static synchronized TestImpactAnalyzer.Selection selection() {
+        if (selection != null) {
+            return selection;
+        }
+        try {
+            Path classes = Paths.get(ImpactFilter.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            selection = new TestImpactAnalyzer(Paths.get("").toAbsolutePath(), classes).analyze(IMPACT_BASE);
+        } catch (URISyntaxException e) {
+            selection = TestImpactAnalyzer.Selection.everything("Test classes not found: " + e.getMessage());
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Changes since " + IMPACT_BASE + ": " + selection.reason());
+        selection.changedMethods().stream().sorted().forEach(method -> lines.add("changed " + method));
+        selection.scenarios().stream().sorted().forEach(scenario -> lines.add("scenario " + scenario));
+        selection.testClasses().stream().sorted().forEach(testClass -> lines.add("class " + testClass));
+        try {
+            Path path = Paths.get(IMPACT_REPORT);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, lines);
+        } catch (IOException e) {
+            System.out.println("Failed to write impact report " + IMPACT_REPORT + ": " + e.getMessage());
+        }
+        System.out.printf("Test impact since %s: %s%n", IMPACT_BASE, selection.all()
+                ? "running all tests (" + selection.reason() + ")"
+                : String.format("%d scenarios and %d test classes affected by %d changed methods, written to %s",
+                        selection.scenarios().size(), selection.testClasses().size(),
+                        selection.changedMethods().size(), IMPACT_REPORT));
+        return selection;
+    }
+}
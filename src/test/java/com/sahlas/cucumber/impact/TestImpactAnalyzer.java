@@ -0,0 +1,528 @@
+package com.sahlas.cucumber.impact;
+
+import com.sahlas.cucumber.sharding.ScenarioHistory;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.java.StepDefinitionAnnotation;
+import io.cucumber.messages.types.Background;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleStep;
+import io.cucumber.messages.types.Rule;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.TableRow;
+import io.cucumber.messages.types.Tag;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * TestImpactAnalyzer selects the scenarios and JUnit test classes affected by the changes since a git revision.
+ * <p>
+ * It maps every scenario to the step definition methods its steps match, and every step definition, hook and test
+ * method to the project methods it calls, from the {@link CallGraph} of the compiled test classes. Changed lines of
+ * Java sources are mapped to methods; a scenario is affected when one of its step methods reaches a changed method,
+ * or when its own lines in a feature file changed. Anything the analysis cannot attribute selects everything:
+ * changed hooks and fixtures, classes no step or test reaches (plugins, filters), build and environment files,
+ * other test resources, and steps without a matching definition.
+ * Files outside src/test, pom.xml and .env (documentation, workflows) do not affect any test.
+ */
+public class TestImpactAnalyzer {
+    private static final String JAVA_ROOT = "src/test/java/";
+    private static final String FEATURE_ROOT = "src/test/resources/features/";
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Set<String> HOOK_ANNOTATIONS = Set.of("Before", "After", "BeforeStep", "AfterStep",
+            "BeforeAll", "AfterAll", "BeforeEach", "AfterEach");
+
+    /**
+     * The tests selected for a change.
+     *
+     * @param all            Whether every test is affected.
+     * @param reason         Why every test is affected, or a summary of the change.
+     * @param scenarios      The keys of the affected scenarios (see {@link ScenarioHistory#key}).
+     * @param testClasses    The binary names of the affected JUnit test classes.
+     * @param changedMethods The project methods changed since the base revision.
+     */
+    public record Selection(boolean all, String reason, Set<String> scenarios, Set<String> testClasses,
+                            Set<String> changedMethods) {
+        static Selection everything(String reason) {
+            return new Selection(true, reason, Set.of(), Set.of(), Set.of());
+        }
+    }
+
+    // A changed file: its new-side changed lines, or null when the whole file is new
+    private record Change(String path, Set<Integer> lines) {
+    }
+
+    private final Path projectDirectory;
+    private final Path classesDirectory;
+
+    /**
+     * Creates an analyzer for a project checkout.
+     *
+     * @param projectDirectory The git working tree holding pom.xml.
+     * @param classesDirectory The compiled test classes of that working tree.
+     */
+    public TestImpactAnalyzer(Path projectDirectory, Path classesDirectory) {
+        this.projectDirectory = projectDirectory;
+        this.classesDirectory = classesDirectory;
+    }
+
+    /**
+     * Selects the tests affected by the differences between a git revision and the working tree,
+     * including files not yet added to git.
+     *
+     * @param base The git revision to compare with, e.g. origin/main.
+     * @return The selection; everything when the change cannot be analyzed.
+     */
+    public Selection analyze(String base) {
+        List<Change> changes;
+        CallGraph graph;
+        try {
+            changes = changesSince(base);
+            graph = CallGraph.read(classesDirectory).orElse(null);
+        } catch (IOException e) {
+            return Selection.everything("change analysis failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Selection.everything("interrupted while reading the git diff");
+        }
+        if (graph == null) {
+            return Selection.everything("javap is not available to build the call graph");
+        }
+
+        Set<String> changedMethods = new TreeSet<>();
+        Map<String, Set<Integer>> changedFeatures = new HashMap<>();
+        for (Change change : changes) {
+            String path = change.path();
+            if (path.equals("pom.xml") || path.equals(".env")) {
+                return Selection.everything(path + " changed");
+            }
+            if (path.startsWith(JAVA_ROOT) && path.endsWith(".java")) {
+                String unattributable = addChangedMethods(graph, change, changedMethods);
+                if (unattributable != null) {
+                    return Selection.everything(unattributable);
+                }
+            } else if (path.startsWith(FEATURE_ROOT) && path.endsWith(".feature")) {
+                changedFeatures.put(path, change.lines());
+            } else if (path.startsWith("src/test/")) {
+                return Selection.everything(path + " changed");
+            }
+        }
+
+        List<Method> stepMethods = new ArrayList<>();
+        Map<String, Set<String>> reachByRoot = new HashMap<>();
+        Set<String> reachedByAnyRoot = new HashSet<>();
+        Set<String> testClasses = new TreeSet<>();
+        Map<Expression, String> stepExpressions = new HashMap<>();
+        ExpressionFactory expressions = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+        try {
+            for (Class<?> type : projectClasses()) {
+                boolean testClass = false;
+                for (Method method : type.getDeclaredMethods()) {
+                    String root = CallGraph.node(type.getName().replace('.', '/'), method.getName());
+                    Set<String> reach = reachByRoot.computeIfAbsent(root, graph::reachableFrom);
+                    String pattern = stepPattern(method);
+                    if (pattern != null) {
+                        stepMethods.add(method);
+                        stepExpressions.put(expressions.createExpression(pattern), root);
+                        reachedByAnyRoot.addAll(reach);
+                    } else if (isHook(method)) {
+                        reachedByAnyRoot.addAll(reach);
+                        if (intersects(reach, changedMethods)) {
+                            return Selection.everything("hook " + root + " reaches a changed method");
+                        }
+                    } else if (isTest(method)) {
+                        testClass = true;
+                        reachedByAnyRoot.addAll(reach);
+                    }
+                }
+                if (testClass && testReaches(type, graph, changedMethods)) {
+                    testClasses.add(type.getName());
+                }
+            }
+        } catch (IOException | RuntimeException | LinkageError e) {
+            return Selection.everything("step definition analysis failed: " + e.getMessage());
+        }
+
+        for (String changed : changedMethods) {
+            String className = changed.substring(0, changed.lastIndexOf('.'));
+            boolean classReached = graph.methodsOf(className).stream()
+                    .anyMatch(method -> reachedByAnyRoot.contains(CallGraph.node(className, method)));
+            if (!classReached) {
+                return Selection.everything(className.replace('/', '.') + " is not called from any step or test");
+            }
+        }
+
+        Set<String> scenarios = new TreeSet<>();
+        try {
+            for (Path feature : featureFiles()) {
+                String path = projectDirectory.relativize(feature).toString().replace('\\', '/');
+                boolean featureChanged = changedFeatures.containsKey(path);
+                for (FeatureScenario scenario : scenariosOf(feature, path)) {
+                    boolean affected = featureChanged && scenario.isAffectedBy(changedFeatures.get(path));
+                    for (String step : scenario.steps()) {
+                        List<String> roots = stepExpressions.entrySet().stream()
+                                .filter(expression -> expression.getKey().match(step) != null)
+                                .map(Map.Entry::getValue)
+                                .toList();
+                        if (roots.isEmpty()) {
+                            return Selection.everything("no step definition matches \"" + step + "\" in " + path);
+                        }
+                        affected |= roots.stream().anyMatch(root -> intersects(reachByRoot.get(root), changedMethods));
+                    }
+                    if (affected) {
+                        scenarios.add(scenario.key());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return Selection.everything("feature analysis failed: " + e.getMessage());
+        }
+        String summary = String.format("%d changed files, %d changed methods, %d step definitions",
+                changes.size(), changedMethods.size(), stepMethods.size());
+        return new Selection(false, summary, scenarios, testClasses, changedMethods);
+    }
+
+    private List<Change> changesSince(String base) throws IOException, InterruptedException {
+        List<Change> changes = new ArrayList<>();
+        String path = null;
+        Set<Integer> lines = null;
+        for (String line : git("diff", "--unified=0", "--no-color", "--no-renames", base, "--")) {
+            if (line.startsWith("--- a/")) {
+                // Kept for deletions, whose new side is /dev/null
+                path = line.substring("--- a/".length());
+            } else if (line.startsWith("+++ ")) {
+                if (line.startsWith("+++ b/")) {
+                    path = line.substring("+++ b/".length());
+                }
+                lines = new TreeSet<>();
+                changes.add(new Change(path, lines));
+            } else if (lines != null) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    // A pure deletion sits between its start line and the next one
+                    int length = count == 0 ? 2 : count;
+                    for (int number = start; number < start + length; number++) {
+                        lines.add(number);
+                    }
+                }
+            }
+        }
+        for (String untracked : git("ls-files", "--others", "--exclude-standard")) {
+            changes.add(new Change(untracked, null));
+        }
+        return changes;
+    }
+
+    // Returns why the change cannot be attributed to methods, or null when it was
+    private String addChangedMethods(CallGraph graph, Change change, Set<String> changedMethods) {
+        Set<String> classes = graph.classesOf(change.path().substring(JAVA_ROOT.length()));
+        if (classes.isEmpty()) {
+            return change.path() + " has no compiled classes (deleted or not compiled)";
+        }
+        boolean wholeFile = change.lines() == null || outsideMethodsChanged(graph, classes, change);
+        for (String className : classes) {
+            Set<String> methods = wholeFile ? graph.methodsOf(className) : graph.methodsAt(className, change.lines());
+            methods.forEach(method -> changedMethods.add(CallGraph.node(className, method)));
+        }
+        return null;
+    }
+
+    // Declarations, annotations and signatures changed outside method bodies affect the whole class;
+    // comments, imports and blank lines do not affect anything
+    private boolean outsideMethodsChanged(CallGraph graph, Set<String> classes, Change change) {
+        List<String> source;
+        try {
+            source = Files.readAllLines(projectDirectory.resolve(change.path()));
+        } catch (IOException e) {
+            return true;
+        }
+        for (int line : change.lines()) {
+            boolean inMethod = classes.stream().anyMatch(className -> !graph.methodsAt(className, Set.of(line)).isEmpty());
+            if (inMethod || line > source.size()) {
+                continue;
+            }
+            String text = source.get(line - 1).trim();
+            if (!(text.isEmpty() || text.startsWith("*") || text.startsWith("/*") || text.startsWith("//")
+                    || text.startsWith("import ") || text.equals("}"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<FeatureScenario> scenariosOf(Path feature, String path) throws IOException {
+        List<Envelope> envelopes;
+        try (Stream<Envelope> parsed = GherkinParser.builder().includeSource(false).build().parse(feature)) {
+            envelopes = parsed.toList();
+        }
+        int lastLine = Files.readAllLines(feature).size();
+        Map<String, int[]> spans = new HashMap<>();
+        Map<String, Integer> rowLines = new HashMap<>();
+        for (Envelope envelope : envelopes) {
+            if (envelope.getParseError().isPresent()) {
+                throw new IOException(path + " cannot be parsed: " + envelope.getParseError().get().getMessage());
+            }
+            envelope.getGherkinDocument().flatMap(GherkinDocument::getFeature)
+                    .ifPresent(parsed -> collectSpans(parsed.getChildren(), lastLine, spans, rowLines));
+        }
+
+        List<FeatureScenario> scenarios = new ArrayList<>();
+        for (Envelope envelope : envelopes) {
+            if (envelope.getPickle().isEmpty()) {
+                continue;
+            }
+            Pickle pickle = envelope.getPickle().get();
+            int[] span = spans.get(pickle.getAstNodeIds().get(0));
+            // An example row is the second AST node of its pickle
+            int row = pickle.getAstNodeIds().size() > 1 ? rowLines.get(pickle.getAstNodeIds().get(1)) : -1;
+            Set<Integer> otherRows = new HashSet<>();
+            rowLines.values().stream()
+                    .filter(line -> line != row && line >= span[1] && line <= span[2])
+                    .forEach(otherRows::add);
+            scenarios.add(new FeatureScenario(ScenarioHistory.key(path, row > 0 ? row : span[0]),
+                    pickle.getSteps().stream().map(PickleStep::getText).toList(), span, otherRows));
+        }
+        return scenarios;
+    }
+
+    /**
+     * A scenario, or one example row of a Scenario Outline, with the lines of its feature file that affect it.
+     *
+     * @param key       The scenario key.
+     * @param steps     The texts of its steps, background steps included.
+     * @param span      Its keyword line, first and last line (tags included), and the last header lines of its rule
+     *                  and of the feature: {@code [line, from, to, ruleStart, ruleHeaderEnd, featureHeaderEnd]}.
+     * @param otherRows The lines of the other example rows of its outline.
+     */
+    private record FeatureScenario(String key, List<String> steps, int[] span, Set<Integer> otherRows) {
+        boolean isAffectedBy(Set<Integer> changedLines) {
+            if (changedLines == null) {
+                return true;
+            }
+            for (int line : changedLines) {
+                boolean inScenario = line >= span[1] && line <= span[2] && !otherRows.contains(line);
+                boolean inRuleHeader = line >= span[3] && line <= span[4];
+                boolean inFeatureHeader = line <= span[5];
+                if (inScenario || inRuleHeader || inFeatureHeader) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // A scenario spans from its first tag to the line before its next sibling. The header of its rule and of the
+    // feature, background included, runs up to the first scenario or rule
+    private static void collectSpans(List<FeatureChild> children, int lastLine, Map<String, int[]> spans,
+                                     Map<String, Integer> rowLines) {
+        List<Object> nodes = new ArrayList<>();
+        for (FeatureChild child : children) {
+            child.getBackground().ifPresent(nodes::add);
+            child.getRule().ifPresent(nodes::add);
+            child.getScenario().ifPresent(nodes::add);
+        }
+        int featureHeaderEnd = firstScenarioOrRule(nodes, lastLine) - 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            int end = i + 1 < nodes.size() ? startLine(nodes.get(i + 1)) - 1 : lastLine;
+            if (nodes.get(i) instanceof Scenario scenario) {
+                addSpan(scenario, startLine(scenario), end, 1, featureHeaderEnd, featureHeaderEnd, spans, rowLines);
+            } else if (nodes.get(i) instanceof Rule rule) {
+                List<Object> ruleNodes = new ArrayList<>();
+                for (RuleChild child : rule.getChildren()) {
+                    child.getBackground().ifPresent(ruleNodes::add);
+                    child.getScenario().ifPresent(ruleNodes::add);
+                }
+                int ruleHeaderEnd = firstScenarioOrRule(ruleNodes, end) - 1;
+                for (int j = 0; j < ruleNodes.size(); j++) {
+                    if (ruleNodes.get(j) instanceof Scenario scenario) {
+                        int scenarioEnd = j + 1 < ruleNodes.size() ? startLine(ruleNodes.get(j + 1)) - 1 : end;
+                        addSpan(scenario, startLine(scenario), scenarioEnd, startLine(rule), ruleHeaderEnd,
+                                featureHeaderEnd, spans, rowLines);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addSpan(Scenario scenario, int from, int to, int ruleStart, int ruleHeaderEnd, int featureHeaderEnd,
+                                Map<String, int[]> spans, Map<String, Integer> rowLines) {
+        spans.put(scenario.getId(), new int[]{scenario.getLocation().getLine().intValue(), from, to,
+                ruleStart, ruleHeaderEnd, featureHeaderEnd});
+        for (Examples examples : scenario.getExamples()) {
+            for (TableRow row : examples.getTableBody()) {
+                rowLines.put(row.getId(), row.getLocation().getLine().intValue());
+            }
+        }
+    }
+
+    private static int firstScenarioOrRule(List<Object> nodes, int lastLine) {
+        return nodes.stream()
+                .filter(node -> !(node instanceof Background))
+                .mapToInt(TestImpactAnalyzer::startLine)
+                .min()
+                .orElse(lastLine + 1);
+    }
+
+    private static int startLine(Object node) {
+        if (node instanceof Scenario scenario) {
+            return firstLine(scenario.getLocation().getLine(), scenario.getTags());
+        }
+        if (node instanceof Rule rule) {
+            return firstLine(rule.getLocation().getLine(), rule.getTags());
+        }
+        return ((Background) node).getLocation().getLine().intValue();
+    }
+
+    private static int firstLine(Long keywordLine, List<Tag> tags) {
+        return tags.stream()
+                .mapToInt(tag -> tag.getLocation().getLine().intValue())
+                .min()
+                .orElse(keywordLine.intValue());
+    }
+
+    private static boolean testReaches(Class<?> testClass, CallGraph graph, Set<String> changedMethods) {
+        for (Class<?> type = testClass; type != null && type.getName().startsWith("com.sahlas."); type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (intersects(graph.reachableFrom(CallGraph.node(type.getName().replace('.', '/'), method.getName())),
+                        changedMethods)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Class<?>> projectClasses() throws IOException {
+        List<Class<?>> classes = new ArrayList<>();
+        ClassLoader loader = TestImpactAnalyzer.class.getClassLoader();
+        try (Stream<Path> files = Files.walk(classesDirectory.resolve("com/sahlas"))) {
+            for (Path file : files.filter(candidate -> candidate.toString().endsWith(".class")).toList()) {
+                String name = classesDirectory.relativize(file).toString().replace('\\', '/');
+                try {
+                    // Loaded without initialization, so no fixture starts anything
+                    classes.add(Class.forName(name.substring(0, name.length() - ".class".length()).replace('/', '.'), false, loader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    throw new IOException("Cannot load " + name, e);
+                }
+            }
+        }
+        return classes;
+    }
+
+    private List<Path> featureFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(projectDirectory.resolve(FEATURE_ROOT))) {
+            return files.filter(file -> file.toString().endsWith(".feature")).sorted().toList();
+        }
+    }
+
+    private static String stepPattern(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(StepDefinitionAnnotation.class)) {
+                try {
+                    return (String) annotation.annotationType().getMethod("value").invoke(annotation);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Unreadable step annotation on " + method, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHook(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            String packageName = annotation.annotationType().getPackageName();
+            if ((packageName.equals("io.cucumber.java") || packageName.equals("org.junit.jupiter.api"))
+                    && HOOK_ANNOTATIONS.contains(annotation.annotationType().getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTest(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().getName().startsWith("org.junit.jupiter.")
+                    && annotation.annotationType().getSimpleName().endsWith("Test")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean intersects(Set<String> reach, Set<String> changedMethods) {
+        if (reach == null) {
+            return false;
+        }
+        for (String method : changedMethods) {
+            if (reach.contains(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> git(String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command)
+                .directory(projectDirectory.toFile())
+                .redirectErrorStream(true)
+                .start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException(String.join(" ", command) + " failed: " + String.join("\n", output));
+        }
+        return output;
+    }
+
+    /**
+     * Prints the tests affected by the changes since a git revision, for use outside a test run.
+     *
+     * @param args The base revision, e.g. origin/main; HEAD when omitted.
+     * @throws Exception if the location of the compiled classes cannot be determined.
+     */
+    public static void main(String[] args) throws Exception {
+        Path classes = Paths.get(TestImpactAnalyzer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Selection selection = new TestImpactAnalyzer(Paths.get("").toAbsolutePath(), classes)
+                .analyze(args.length > 0 ? args[0] : "HEAD");
+        System.out.println(selection.all() ? "All tests: " + selection.reason() : selection.reason());
+        Map<String, Set<String>> byKind = new TreeMap<>(Map.of("scenario", selection.scenarios(),
+                "test class", selection.testClasses(), "changed method", selection.changedMethods()));
+        byKind.forEach((kind, names) -> names.forEach(name -> System.out.println(kind + ": " + name)));
+    }
+}
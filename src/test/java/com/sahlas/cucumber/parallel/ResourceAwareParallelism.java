@@ -0,0 +1,62 @@
+package com.sahlas.cucumber.parallel;
+
+import com.sahlas.fixtures.ResourceBudget;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * ResourceAwareParallelism runs as many scenarios (or JUnit test classes) concurrently as the machine can hold,
+ * as measured by the {@link ResourceBudget}: at most one worker per core and one browser per footprint of
+ * available memory. Both engines share the one measurement, and the pool is capped at that size so that
+ * blocked workers do not cause extra compensating threads.
+ * <p>
+ * Configured with {@code cucumber.execution.parallel.config.strategy=custom} and
+ * {@code cucumber.execution.parallel.config.custom.class} (and the junit.jupiter equivalents).
+ */
+public class ResourceAwareParallelism implements ParallelExecutionConfigurationStrategy {
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        int parallelism = ResourceBudget.sizing().parallelism();
+        return new Configuration(parallelism);
+    }
+
+    private record Configuration(int parallelism) implements ParallelExecutionConfiguration {
+        private static final int KEEP_ALIVE_SECONDS = 30;
+
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return parallelism;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return parallelism;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return KEEP_ALIVE_SECONDS;
+        }
+
+        @Override
+        public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+            // Like the fixed strategy with a max pool size: never exceed the pool instead of failing
+            return pool -> true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sahlas.cucumber.plugins;
+
+import com.sahlas.cucumber.sharding.ScenarioHistory;
+import com.sahlas.cucumber.sharding.ScenarioShardFilter;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ScenarioDurationPlugin measures every scenario, hooks included, and merges the durations into the
+ * {@link ScenarioHistory} at the end of the run, where the {@link ScenarioShardFilter} picks them up to balance the
+ * shards of the next run.
+ */
+public class ScenarioDurationPlugin implements ConcurrentEventListener {
+
+    private final Map<String, ScenarioHistory.Entry> durations = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> handleTestRunFinished());
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        // A skipped scenario's duration says nothing about how long it takes to run
+        if (event.getResult().getStatus() == Status.SKIPPED) {
+            return;
+        }
+        TestCase testCase = event.getTestCase();
+        durations.put(ScenarioHistory.key(testCase.getUri().toString(), testCase.getLocation().getLine()),
+                new ScenarioHistory.Entry(testCase.getName(), event.getResult().getDuration().toMillis()));
+    }
+
+    private void handleTestRunFinished() {
+        if (!durations.isEmpty()) {
+            boolean sharded = ScenarioShardFilter.isSharded();
+            ScenarioHistory.merge(durations, sharded);
+            System.out.println("Scenario durations of " + durations.size() + " scenarios merged into the history"
+                    + (sharded ? " updates" : ""));
+        }
+    }
+}
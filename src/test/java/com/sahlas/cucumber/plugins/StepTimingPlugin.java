@@ -0,0 +1,179 @@
+package com.sahlas.cucumber.plugins;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * StepTimingPlugin records a latency histogram per step definition pattern across all parallel workers.
+ * At the end of the run it writes the percentiles to STEP_TIMING_REPORT (target/step-timings.json) and attaches
+ * them to a "Step timings" result in the Allure report. Steps whose p95 exceeds the p95 stored in
+ * STEP_TIMING_BASELINE by more than STEP_TIMING_TOLERANCE are flagged as regressions.
+ * Run with STEP_TIMING_UPDATE_BASELINE=true to store the current p95s as the new baseline. The baseline is machine
+ * specific, so it is not committed: CI restores it from its cache and refreshes it on pushes to main, and a run
+ * without a baseline only reports the percentiles.
+ * <p>
+ * Register it next to AllureCucumber7Jvm in the cucumber.plugin property.
+ */
+public class StepTimingPlugin implements ConcurrentEventListener {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String STEP_TIMING_REPORT = dotenv.get("STEP_TIMING_REPORT", "target/step-timings.json");
+    private static final String STEP_TIMING_BASELINE = dotenv.get("STEP_TIMING_BASELINE", ".cache/step-timing-baseline.json");
+    private static final double STEP_TIMING_TOLERANCE = Double.parseDouble(dotenv.get("STEP_TIMING_TOLERANCE", "0.25"));
+    private static final boolean STEP_TIMING_UPDATE_BASELINE = dotenv.get("STEP_TIMING_UPDATE_BASELINE", "false").equalsIgnoreCase("true");
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    // Shared across the Cucumber runs of the JVM, so the report written after a failsafe rerun covers the whole run
+    private static final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::handleTestStepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> handleTestRunFinished());
+    }
+
+    private void handleTestStepFinished(TestStepFinished event) {
+        // Hooks and failed or skipped steps would distort the step's latency profile
+        if (!(event.getTestStep() instanceof PickleStepTestStep step) || event.getResult().getStatus() != Status.PASSED) {
+            return;
+        }
+        histograms.computeIfAbsent(step.getPattern(), pattern -> new LatencyHistogram())
+                .record(event.getResult().getDuration().toNanos() / 1_000);
+    }
+
+    private void handleTestRunFinished() {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Object>> steps = new TreeMap<>();
+        histograms.forEach((pattern, histogram) -> steps.put(pattern, summarize(histogram)));
+
+        Map<String, Long> baseline = readBaseline();
+        List<String> regressions = new ArrayList<>();
+        steps.forEach((pattern, summary) -> {
+            Long baselineP95 = baseline.get(pattern);
+            long p95 = (long) summary.get("p95Ms");
+            if (baselineP95 != null && p95 > baselineP95 * (1 + STEP_TIMING_TOLERANCE)) {
+                regressions.add(String.format("%s: p95 %d ms, baseline %d ms", pattern, p95, baselineP95));
+            }
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tolerance", STEP_TIMING_TOLERANCE);
+        report.put("regressions", regressions);
+        report.put("steps", steps);
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(report);
+            Path path = Paths.get(STEP_TIMING_REPORT);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, json);
+        } catch (IOException e) {
+            System.out.println("Failed to write step timing report: " + e.getMessage());
+            return;
+        }
+        System.out.println("Step timings for " + steps.size() + " steps written to " + STEP_TIMING_REPORT);
+        regressions.forEach(regression -> System.out.println("Step latency regression: " + regression));
+
+        attachToAllure(json, regressions);
+        if (STEP_TIMING_UPDATE_BASELINE) {
+            writeBaseline(steps);
+        }
+    }
+
+    private static Map<String, Object> summarize(LatencyHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.count());
+        summary.put("meanMs", Math.round(histogram.meanMicros() / 1_000));
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + (int) percentile + "Ms", histogram.percentileMicros(percentile) / 1_000);
+        }
+        summary.put("maxMs", histogram.maxMicros() / 1_000);
+        return summary;
+    }
+
+    // The run has no current test case at this point, so the report gets a result of its own
+    private static void attachToAllure(byte[] json, List<String> regressions) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+        TestResult result = new TestResult()
+                .setUuid(uuid)
+                .setName("Step timings")
+                .setFullName("StepTimingPlugin.stepTimings")
+                .setHistoryId("step-timings")
+                .setLabels(List.of(new Label().setName("suite").setValue("Performance")));
+        lifecycle.scheduleTestCase(result);
+        lifecycle.startTestCase(uuid);
+        lifecycle.addAttachment("Step timings", "application/json", "json", json);
+        lifecycle.updateTestCase(uuid, testResult -> {
+            if (regressions.isEmpty()) {
+                testResult.setStatus(io.qameta.allure.model.Status.PASSED);
+            } else {
+                testResult.setStatus(io.qameta.allure.model.Status.FAILED)
+                        .setStatusDetails(new StatusDetails()
+                                .setMessage(regressions.size() + " step(s) regressed against the p95 baseline")
+                                .setTrace(String.join("\n", regressions)));
+            }
+        });
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+
+    private Map<String, Long> readBaseline() {
+        Map<String, Long> baseline = new LinkedHashMap<>();
+        Path path = Paths.get(STEP_TIMING_BASELINE);
+        if (!Files.exists(path)) {
+            return baseline;
+        }
+        try {
+            JsonNode root = mapper.readTree(path.toFile());
+            root.fields().forEachRemaining(entry -> baseline.put(entry.getKey(), entry.getValue().asLong()));
+        } catch (IOException e) {
+            System.out.println("Failed to read step timing baseline " + STEP_TIMING_BASELINE + ": " + e.getMessage());
+        }
+        return baseline;
+    }
+
+    private void writeBaseline(Map<String, Map<String, Object>> steps) {
+        Map<String, Long> baseline = new TreeMap<>();
+        steps.forEach((pattern, summary) -> baseline.put(pattern, (Long) summary.get("p95Ms")));
+        try {
+            Path path = Paths.get(STEP_TIMING_BASELINE);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, mapper.writeValueAsString(baseline), StandardCharsets.UTF_8);
+            System.out.println("Step timing baseline updated: " + STEP_TIMING_BASELINE);
+        } catch (IOException e) {
+            System.out.println("Failed to write step timing baseline: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.sahlas.cucumber.sharding;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ScenarioHistory stores the duration of each scenario in previous runs, keyed by
+ * {@code <feature resource>:<line>} so that every Scenario Outline example row has its own entry.
+ * The file (SCENARIO_HISTORY, default .cache/scenario-durations.json) is kept between runs. Every shard of a sharded
+ * run must bin-pack from the same history, so shards leave it untouched and merge their durations into
+ * SCENARIO_HISTORY_UPDATES (default .cache/scenario-durations.updates.json) instead, under a file lock so several
+ * processes on one machine can share it; once all shards have finished, the updates file replaces the history.
+ * Unsharded runs merge into the history directly.
+ * Durations are smoothed with an exponential moving average, so one slow run does not reshuffle the shards.
+ */
+public class ScenarioHistory {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String SCENARIO_HISTORY = dotenv.get("SCENARIO_HISTORY", ".cache/scenario-durations.json");
+    private static final String SCENARIO_HISTORY_UPDATES = dotenv.get("SCENARIO_HISTORY_UPDATES",
+            ".cache/scenario-durations.updates.json");
+    // Weight of the latest run in the moving average
+    private static final double SMOOTHING = 0.5;
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * A scenario's smoothed duration and, for readability of the file, its name.
+     *
+     * @param name       The scenario name.
+     * @param durationMs The smoothed duration in milliseconds.
+     */
+    public record Entry(String name, long durationMs) {
+    }
+
+    private ScenarioHistory() {
+    }
+
+    /**
+     * Builds the history key of a scenario.
+     *
+     * @param uri  The feature URI or classpath resource, with or without a classpath: prefix.
+     * @param line The line of the scenario, or of the example row for a Scenario Outline.
+     * @return The key, e.g. features/catalog/product_catalog.feature:13.
+     */
+    public static String key(String uri, int line) {
+        String resource = uri.replaceFirst("^classpath:", "").replaceFirst("^/+", "");
+        int features = resource.indexOf("features/");
+        return (features > 0 ? resource.substring(features) : resource) + ":" + line;
+    }
+
+    /**
+     * Reads the durations of previous runs.
+     *
+     * @return The entries by key; empty if there is no history yet or it cannot be read.
+     */
+    public static Map<String, Entry> read() {
+        return read(Paths.get(SCENARIO_HISTORY));
+    }
+
+    /**
+     * Merges the durations of the current run into the history file, or into the updates file when the run is
+     * sharded. The updates file starts from the history, so it holds the complete history once all shards merged.
+     *
+     * @param durations The entries of this run by key, with the measured duration.
+     * @param sharded   true if other shards of the run may still read the history.
+     */
+    public static void merge(Map<String, Entry> durations, boolean sharded) {
+        Path path = Paths.get(sharded ? SCENARIO_HISTORY_UPDATES : SCENARIO_HISTORY).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path lockFile = path.resolveSibling(path.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    Map<String, Entry> history = Files.exists(path) ? read(path) : read();
+                    durations.forEach((key, entry) -> history.merge(key, entry, (previous, latest) ->
+                            new Entry(latest.name(), Math.round(SMOOTHING * latest.durationMs()
+                                    + (1 - SMOOTHING) * previous.durationMs()))));
+                    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+                    mapper.writeValue(temporary.toFile(), history);
+                    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to update scenario history " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Entry> read(Path path) {
+        if (!Files.exists(path)) {
+            return new TreeMap<>();
+        }
+        try {
+            return mapper.readValue(path.toFile(), new TypeReference<TreeMap<String, Entry>>() {
+            });
+        } catch (IOException e) {
+            System.out.println("Failed to read scenario history " + path + ": " + e.getMessage());
+            return new TreeMap<>();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sahlas.cucumber.sharding;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FileSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ScenarioShardFilter splits the discovered scenarios into SHARD_TOTAL shards and keeps only shard SHARD_INDEX
+ * (0-based), so several JVMs can each run a part of the suite.
+ * Scenarios are bin-packed by their duration in the {@link ScenarioHistory}: longest first, each onto the shard
+ * with the least estimated work, so the shards finish close together. Scenarios without history are estimated
+ * at the median known duration. Tests that are not scenarios (e.g. JUnit tests) run in shard 0. The shards of a run
+ * agree on the split because none of them changes the history before all have finished.
+ * <p>
+ * Registered through META-INF/services, so it applies to every launcher, including the {@code @Suite} runner.
+ * SHARD_INDEX and SHARD_TOTAL are read from system properties, falling back to the environment.
+ */
+public class ScenarioShardFilter implements PostDiscoveryFilter {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final int SHARD_INDEX = Integer.parseInt(setting("SHARD_INDEX", "0"));
+    private static final int SHARD_TOTAL = Integer.parseInt(setting("SHARD_TOTAL", "1"));
+    private static final long DEFAULT_DURATION_MS = 1000;
+
+    // Shard of every test, per engine root. Shared by all filter instances of the JVM, so that the failsafe rerun
+    // of failed scenarios, discovered by a new launcher, keeps them in the shard of the first run
+    private static final Map<UniqueId, Map<UniqueId, Integer>> assignments = new HashMap<>();
+
+    public ScenarioShardFilter() {
+        if (SHARD_TOTAL < 1 || SHARD_INDEX < 0 || SHARD_INDEX >= SHARD_TOTAL) {
+            throw new IllegalArgumentException("Invalid shard " + SHARD_INDEX + " of " + SHARD_TOTAL
+                    + ": SHARD_INDEX must be between 0 and SHARD_TOTAL - 1");
+        }
+    }
+
+    /**
+     * Checks whether this JVM runs one shard of several.
+     *
+     * @return true if SHARD_TOTAL is greater than 1.
+     */
+    public static boolean isSharded() {
+        return SHARD_TOTAL > 1;
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (SHARD_TOTAL == 1 || !descriptor.isTest()) {
+            return FilterResult.included("Not sharded");
+        }
+        int shard = assignmentFor(descriptor).getOrDefault(descriptor.getUniqueId(), 0);
+        return shard == SHARD_INDEX
+                ? FilterResult.included("In shard " + SHARD_INDEX + " of " + SHARD_TOTAL)
+                : FilterResult.excluded("In shard " + shard + " of " + SHARD_TOTAL);
+    }
+
+    // Shards an engine's whole tree on its first test, before any descriptor has been removed from it
+    private static synchronized Map<UniqueId, Integer> assignmentFor(TestDescriptor descriptor) {
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        Map<UniqueId, Integer> assignment = assignments.get(root.getUniqueId());
+        if (assignment != null) {
+            return assignment;
+        }
+
+        Map<String, ScenarioHistory.Entry> history = ScenarioHistory.read();
+        Map<UniqueId, Integer> shards = new HashMap<>();
+        List<Scenario> scenarios = new ArrayList<>();
+        List<Long> knownDurations = new ArrayList<>();
+        for (TestDescriptor test : root.getDescendants()) {
+            if (!test.isTest()) {
+                continue;
+            }
+            Optional<String> key = test.getSource().flatMap(ScenarioShardFilter::keyOf);
+            if (key.isEmpty()) {
+                shards.put(test.getUniqueId(), 0);
+                continue;
+            }
+            ScenarioHistory.Entry entry = history.get(key.get());
+            if (entry != null) {
+                knownDurations.add(entry.durationMs());
+            }
+            scenarios.add(new Scenario(test.getUniqueId(), key.get(), entry == null ? -1 : entry.durationMs()));
+        }
+
+        long estimate = median(knownDurations);
+        List<Scenario> estimated = scenarios.stream()
+                .map(scenario -> scenario.durationMs() < 0 ? scenario.withDuration(estimate) : scenario)
+                .sorted(Comparator.comparingLong(Scenario::durationMs).reversed().thenComparing(Scenario::key))
+                .toList();
+        long[] loads = new long[SHARD_TOTAL];
+        int[] counts = new int[SHARD_TOTAL];
+        for (Scenario scenario : estimated) {
+            int lightest = 0;
+            for (int shard = 1; shard < SHARD_TOTAL; shard++) {
+                if (loads[shard] < loads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            loads[lightest] += scenario.durationMs();
+            counts[lightest]++;
+            shards.put(scenario.id(), lightest);
+        }
+
+        assignments.put(root.getUniqueId(), shards);
+        if (scenarios.isEmpty()) {
+            return shards;
+        }
+        System.out.printf("Running shard %d of %d: %d of %d scenarios, estimated %.1f s (%d with history)%n",
+                SHARD_INDEX, SHARD_TOTAL, counts[SHARD_INDEX], scenarios.size(), loads[SHARD_INDEX] / 1000.0,
+                knownDurations.size());
+        for (int shard = 0; shard < SHARD_TOTAL; shard++) {
+            System.out.printf("  shard %d: %d scenarios, estimated %.1f s%n", shard, counts[shard], loads[shard] / 1000.0);
+        }
+        return shards;
+    }
+
+    private static Optional<String> keyOf(TestSource source) {
+        if (source instanceof ClasspathResourceSource resource && resource.getPosition().isPresent()) {
+            return Optional.of(ScenarioHistory.key(resource.getClasspathResourceName(), resource.getPosition().get().getLine()));
+        }
+        if (source instanceof FileSource file && file.getPosition().isPresent()) {
+            return Optional.of(ScenarioHistory.key(file.getFile().toURI().getPath(), file.getPosition().get().getLine()));
+        }
+        return Optional.empty();
+    }
+
+    private static long median(List<Long> durations) {
+        if (durations.isEmpty()) {
+            return DEFAULT_DURATION_MS;
+        }
+        List<Long> sorted = durations.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String setting(String key, String defaultValue) {
+        return System.getProperty(key, dotenv.get(key, defaultValue));
+    }
+
+    private record Scenario(UniqueId id, String key, long durationMs) {
+        Scenario withDuration(long estimate) {
+            return new Scenario(id, key, estimate);
+        }
+    }
+}
@@ -1,42 +1,40 @@
 package com.sahlas.cucumber.stepdefinitions;
 
 import com.microsoft.playwright.*;
+import com.sahlas.fixtures.BrowserPool;
+import com.sahlas.fixtures.LoginStateCache;
+import com.sahlas.fixtures.MemorySampler;
+import com.sahlas.fixtures.NavigationTiming;
+import com.sahlas.fixtures.PooledBrowser;
+import com.sahlas.fixtures.RequestRouter;
+import com.sahlas.fixtures.ResourceBudget;
+import com.sahlas.fixtures.ScenarioRetryFixtures;
+import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.VisualRegression;
+import com.sahlas.fixtures.WebVitals;
 import io.cucumber.java.After;
 import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
 
-import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Playwright Cucumber Fixtures for managing Playwright lifecycle in Cucumber tests.
- * This class initializes Playwright, creates a browser context, and manages page instances.
+ * This class leases warm browsers from the {@link BrowserPool}, creates a browser context, and manages page instances.
  */
 public class PlaywrightCucumberFixtures {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final AtomicBoolean shutdownHookInstalled = new AtomicBoolean();
 
     /**
-     * Thread-local instance of Playwright.
-     * Ensures each thread has its own Playwright instance.
-     * The test ID attribute is set to "data-test" for easier selector targeting.
+     * Thread-local lease on a warm browser from the shared {@link BrowserPool}.
+     * The browser is leased when a scenario starts and returned to the pool when it ends.
      */
-    private static final ThreadLocal<Playwright> playwright
-            = ThreadLocal.withInitial(() -> {
-                Playwright playwright = Playwright.create();
-                playwright.selectors().setTestIdAttribute("data-test");
-                return playwright;
-            }
-    );
-
-    /**
-     * Thread-local instance of Browser.
-     * Launches a Chromium browser in headless mode with specific arguments.
-     */
-    private static final ThreadLocal<Browser> browser = ThreadLocal.withInitial(() ->
-            playwright.get().chromium().launch(
-                    new BrowserType.LaunchOptions()
-                            .setHeadless(true)
-                            .setArgs(Arrays.asList("--no-sandbox", "--disable-extensions", "--disable-gpu"))
-            )
-    );
+    private static final ThreadLocal<PooledBrowser> pooledBrowser = new ThreadLocal<>();
 
     /**
      * Thread-local instance of BrowserContext.
@@ -51,16 +49,40 @@ public class PlaywrightCucumberFixtures {
     private static final ThreadLocal<Page> page = new ThreadLocal<>();
 
     /**
-     * Tears down the Playwright and Browser instances after all tests are executed.
-     * Closes the browser and Playwright instances and removes them from thread-local storage.
+     * Thread-local flag set when the current BrowserContext was created from a cached login state.
+     */
+    private static final ThreadLocal<Boolean> authenticated = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Thread-local collector of the web vitals of the documents the current scenario visits.
+     */
+    private static final ThreadLocal<WebVitals.Collector> webVitals = new ThreadLocal<>();
+
+    /**
+     * Tears down the browser pool and the screenshot writer after all tests are executed.
+     * Closes every pooled browser and its Playwright driver, and reports the lease wait times,
+     * screenshot pipeline metrics, request routing statistics, the memory observed against the resource budget,
+     * the per-browser memory samples and the page load times per user type, and appends the scenarios' web vitals
+     * to the run history.
+     * When failed scenarios are about to be rerun in this JVM, the browsers and the screenshot writer are kept
+     * for the rerun, and closed at the end of the last one or, failing that, when the JVM exits.
      */
     @AfterAll
     public static void tearDown() {
-        browser.get().close();
-        browser.remove();
-
-        playwright.get().close();
-        playwright.remove();
+        System.out.println(RequestRouter.report());
+        System.out.println(ResourceBudget.report());
+        System.out.println(MemorySampler.report());
+        System.out.println(NavigationTiming.report());
+        System.out.println(WebVitals.report());
+        System.out.println(ScenarioRetryFixtures.report());
+        if (ScenarioRetryFixtures.rerunPending()) {
+            System.out.println(BrowserPool.getInstance().report());
+            if (shutdownHookInstalled.compareAndSet(false, true)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(PlaywrightCucumberFixtures::shutdown, "fixtures-shutdown"));
+            }
+            return;
+        }
+        shutdown();
     }
 
     /**
@@ -82,21 +104,83 @@ public class PlaywrightCucumberFixtures {
     }
 
     /**
-     * Sets up a new BrowserContext and Page before each test.
+     * Checks whether the current BrowserContext already holds an authenticated session.
+     *
+     * @return true if the context was created from the cached login state of the configured user type.
+     */
+    public static boolean isAuthenticated() {
+        return authenticated.get();
+    }
+
+    /**
+     * Leases a warm browser from the pool and sets up a new BrowserContext and Page before each test.
+     * Unless the scenario is tagged {@value LoginStateCache#UI_LOGIN_TAG}, the context starts with the
+     * cached login state of the configured user type. Requests of the context go through the {@link RequestRouter},
+     * and its documents report their web vitals (see {@link WebVitals}).
+     * While memory is short the scenario first waits for a running one to finish (see {@link ResourceBudget}).
      * This method is executed with a high priority (order = 100).
+     *
+     * @param scenario The scenario about to start.
      */
     @Before(order = 100)
-    public void setUpBrowserContext() {
-        browserContext.set(browser.get().newContext());
+    public void setUpBrowserContext(Scenario scenario) {
+        ScreenshotManager.startScenario();
+        VisualRegression.startScenario(scenario);
+        NavigationTiming.startScenario();
+        ResourceBudget.acquire();
+        PooledBrowser leased = BrowserPool.getInstance().lease();
+        pooledBrowser.set(leased);
+        Browser browser = leased.getBrowser();
+
+        Browser.NewContextOptions options = new Browser.NewContextOptions();
+        if (LoginStateCache.appliesTo(scenario)) {
+            LoginStateCache.storageStateFor(LoginStateCache.currentUserType(), browser)
+                    .ifPresent(storageState -> {
+                        options.setStorageState(storageState);
+                        authenticated.set(true);
+                    });
+        }
+        browserContext.set(browser.newContext(options));
+        RequestRouter.install(browserContext.get(), scenario);
+        webVitals.set(WebVitals.install(browserContext.get(), scenario.getName(),
+                RequestRouter.blocksImages(scenario)));
+        leased.contextCreated();
         page.set(browserContext.get().newPage());
     }
 
     /**
-     * Closes the current BrowserContext after each test.
+     * Waits for the scenario's screenshots to be written, closes the current BrowserContext after each test,
+     * samples the browser and heap memory with the {@link MemorySampler}, reports the screenshots that differ from
+     * their baselines (see {@link VisualRegression})
+     * and returns the leased browser to the pool.
+     * The pool recycles a browser that reached its context or memory limit.
      * This method is executed with a high priority (order = 100).
+     *
+     * @param scenario The scenario that just finished.
      */
     @After(order = 100)
-    public void closeContext() {
-        browserContext.get().close();
+    public void closeContext(Scenario scenario) {
+        ScreenshotManager.flush();
+        try {
+            if (browserContext.get() != null) {
+                WebVitals.completeScenario(webVitals.get(), page.get());
+                browserContext.get().close();
+            }
+            MemorySampler.sample(scenario.getName(), pooledBrowser.get());
+            VisualRegression.completeScenario();
+        } finally {
+            BrowserPool.getInstance().release(pooledBrowser.get());
+            ResourceBudget.release();
+            pooledBrowser.remove();
+            browserContext.remove();
+            page.remove();
+            authenticated.remove();
+            webVitals.remove();
+        }
+    }
+
+    private static void shutdown() {
+        BrowserPool.getInstance().shutdown();
+        ScreenshotManager.shutdown();
     }
-}
\ No newline at end of file
+}
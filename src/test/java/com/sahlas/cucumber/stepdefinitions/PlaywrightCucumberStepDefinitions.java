@@ -1,7 +1,10 @@
 package com.sahlas.cucumber.stepdefinitions;
 
 import com.sahlas.domain.User;
+import com.sahlas.fixtures.CartSeeder;
+import com.sahlas.fixtures.NavigationTiming;
 import com.sahlas.fixtures.SharedContext;
+import com.sahlas.fixtures.ClientStateSetup;
 import com.sahlas.swaglabs.catalog.pageobjects.*;
 import io.cucumber.datatable.DataTable;
 import io.cucumber.java.After;
@@ -60,13 +63,18 @@ public class PlaywrightCucumberStepDefinitions {
     CheckoutInformationPage checkoutInformationPage;
     CheckoutOverviewPage checkoutOverviewPage;
     CheckoutCompletePage checkoutCompletePage;
+    // Performs the precondition steps of scenarios tagged @state-setup; null for the other scenarios
+    ClientStateSetup stateSetup;
 
     /**
      * Initializes page objects before each test.
-     * This method is executed before every scenario to set up the required page objects.
+     * This method is executed before every scenario to set up the required page objects, and the client state setup
+     * when the scenario is tagged {@value ClientStateSetup#STATE_SETUP_TAG}.
+     *
+     * @param scenario The scenario about to start.
      */
     @Before
-    public void setUp() {
+    public void setUp(Scenario scenario) {
         loginPage = new LoginPage(PlaywrightCucumberFixtures.getPage());
         productListPage = new ProductListPage(PlaywrightCucumberFixtures.getPage());
         productDetailsPage = new ProductDetailsPage(PlaywrightCucumberFixtures.getPage());
@@ -74,6 +82,9 @@ public class PlaywrightCucumberStepDefinitions {
         checkoutOverviewPage = new CheckoutOverviewPage(PlaywrightCucumberFixtures.getPage());
         shoppingCartPage = new ShoppingCartPage(PlaywrightCucumberFixtures.getPage());
         checkoutCompletePage = new CheckoutCompletePage(PlaywrightCucumberFixtures.getPage());
+        stateSetup = ClientStateSetup.appliesTo(scenario)
+                ? new ClientStateSetup(PlaywrightCucumberFixtures.getBrowserContext(), PlaywrightCucumberFixtures.getPage())
+                : null;
     }
     @After
     public void tearDown(Scenario scenario) {
@@ -217,6 +228,8 @@ public class PlaywrightCucumberStepDefinitions {
 
     /**
      * Adds multiple products to Sally's cart based on the provided DataTable.
+     * Scenarios tagged {@value ClientStateSetup#STATE_SETUP_TAG} add them to the client state, so the inventory page
+     * shows them after its next navigation.
      *
      * @param productTable A DataTable containing product names to add.
      */
@@ -232,7 +245,11 @@ public class PlaywrightCucumberStepDefinitions {
 
         for (Map<String, String> product : products) {
             String productName = product.get("product");
-            productListPage.addProductToCart(productName);
+            if (stateSetup != null) {
+                stateSetup.addProductToCart(productName);
+            } else {
+                productListPage.addProductToCart(productName);
+            }
         }
     }
 
@@ -243,9 +260,9 @@ public class PlaywrightCucumberStepDefinitions {
      */
     @Then("the shopping cart page should indicate all products picked for checkout")
     public void theShoppingCartShouldContainAllAddedProducts(DataTable productTable) {
-        boolean dataMatch = shoppingCartPage.verifyCartContents(productTable);
-        assertThat(dataMatch)
-                .as("All product details should be represented in the cart")
+        CartDiff cartDiff = shoppingCartPage.diffCartContents(productTable);
+        assertThat(cartDiff.isEmpty())
+                .as("All product details should be represented in the cart: " + cartDiff)
                 .isTrue();
     }
 
@@ -320,63 +337,73 @@ public class PlaywrightCucumberStepDefinitions {
 
     /**
      * Logs in Sally using credentials based on the user type specified in environment variables.
-     * The method retrieves the user type from the environment, determines the corresponding
-     * username and password, and logs in Sally by navigating to the login page and submitting the credentials.
+     * When the scenario's context was created from the cached login state, Sally is already authenticated
+     * and only the inventory page is opened. Otherwise the method determines the username and password
+     * for the user type, and logs in Sally by navigating to the login page and submitting the credentials,
+     * or by setting the session cookie, which opens the inventory page, in scenarios tagged
+     * {@value ClientStateSetup#STATE_SETUP_TAG}.
      */
     @Given("Sally logs in")
     public void sallyHasLoggedInWithHerAccount() {
+        // The context already carries the session cookie of the configured user type
+        if (PlaywrightCucumberFixtures.isAuthenticated()) {
+            productListPage.openProductListPage();
+            return;
+        }
+
         // Retrieve the user type from environment variables, defaulting to "standard_user"
         String user_type = dotenv.get("USER_TYPE", "standard_user");
 
-        // Initialize username and password variables
-        String username;
-        String password;
-
-        // Determine the username and password based on the user type
-        switch (user_type) {
-            case "standard_user":
-                System.out.println("Logging in as standard user");
-                username = dotenv.get("STANDARD_USERNAME", "standard_user");
-                password = dotenv.get("STANDARD_PASSWORD", "secret_sauce");
-                break;
-            case "locked_out_user":
-                System.out.println("Logging in as locked out user");
-                username = dotenv.get("LOCKED_USERNAME", "locked_out_user");
-                password = dotenv.get("LOCKED_PASSWORD", "secret_sauce");
-                break;
-            case "problem_user":
-                System.out.println("Logging in as problem user");
-                username = dotenv.get("PROBLEM_USERNAME", "problem_user");
-                password = dotenv.get("PROBLEM_PASSWORD", "secret_sauce");
-                break;
-            case "performance_glitch_user":
-                System.out.println("Logging in as performance glitch user");
-                username = dotenv.get("PERFORMANCE_USERNAME", "performance_glitch_user");
-                password = dotenv.get("PERFORMANCE_PASSWORD", "secret_sauce");
-                break;
-            case "error_user":
-                System.out.println("Logging in as error user");
-                username = dotenv.get("ERROR_USERNAME", "error_user");
-                password = dotenv.get("ERROR_PASSWORD", "secret_sauce");
-                break;
-            case "visual_user":
-                System.out.println("Logging in as visual user");
-                username = dotenv.get("VISUAL_USERNAME", "visual_user");
-                password = dotenv.get("VISUAL_PASSWORD", "secret_sauce");
-                break;
-            default:
-                // Throw an exception if the user type is unknown
-                throw new IllegalArgumentException("Unknown user type: " + user_type);
+        if (stateSetup != null) {
+            stateSetup.loginUser(User.forUserType(user_type));
+            return;
         }
 
         // Navigate to the login page
         loginPage.openHomePage();
 
-        // Create a User object with the determined credentials and log in
-        User currentUser = new User(username, password);
+        // Create a User object with the credentials for the user type and log in
+        User currentUser = User.forUserType(user_type);
         loginPage.loginUser(currentUser);
     }
 
+    /**
+     * Logs in Sally with the given products already in her cart.
+     * The cart is seeded through the browser context's client-side storage before the first navigation (see
+     * {@link CartSeeder}), so no add-to-cart buttons are clicked. Use it whenever the scenario does not test adding
+     * products to the cart itself.
+     *
+     * @param productTable A DataTable containing the names of the products in the cart.
+     */
+    @Given("Sally logs in with the following products in her cart")
+    public void sallyLogsInWithTheFollowingProductsInHerCart(DataTable productTable) {
+        List<String> productNames = productTable.asMaps(String.class, String.class).stream()
+                .map(product -> product.get("product"))
+                .toList();
+        CartSeeder.seed(PlaywrightCucumberFixtures.getBrowserContext(), productNames);
+        sallyHasLoggedInWithHerAccount();
+    }
+
+    /**
+     * Verifies the latency budget of a page: the load event of its latest load in this scenario, measured with the
+     * browser's Navigation Timing API, must end within the budget. Client-side route changes, such as continuing
+     * shopping from the cart, load no document and are not measured.
+     *
+     * @param pageName The page name, e.g. inventory, cart or login.
+     * @param budgetMs The latency budget in milliseconds.
+     */
+    @Then("the {word} page loads within {int} ms")
+    public void thePageLoadsWithin(String pageName, int budgetMs) {
+        // The current document may have been reached by a click rather than through a page object
+        NavigationTiming.capture(PlaywrightCucumberFixtures.getPage());
+        NavigationTiming.Measurement measurement = NavigationTiming.latest(pageName)
+                .orElseThrow(() -> new AssertionError("The " + pageName + " page was not loaded in this scenario"));
+        System.out.println("Navigation timing: " + measurement);
+        assertThat(measurement.loadMs())
+                .as("The " + pageName + " page should load within " + budgetMs + " ms: " + measurement)
+                .isLessThanOrEqualTo(budgetMs);
+    }
+
     /**
      * Begins the checkout process by clicking the checkout button and verifying the checkout page.
      */
@@ -395,13 +422,18 @@ public class PlaywrightCucumberStepDefinitions {
     }
 
     /**
-     * Fills in Sally's personal information on the checkout page.
+     * Fills in Sally's personal information on the checkout page, in a single evaluation in scenarios tagged
+     * {@value ClientStateSetup#STATE_SETUP_TAG}.
      *
      * @param personalInfoTable A DataTable containing Sally's personal information.
      */
     @Then("Sally fills in her personal information")
     public void sheFillsInHerPersonalInformation(DataTable personalInfoTable) {
-        checkoutInformationPage.fillInPersonalInformation(personalInfoTable);
+        if (stateSetup != null) {
+            stateSetup.fillInPersonalInformation(personalInfoTable);
+        } else {
+            checkoutInformationPage.fillInPersonalInformation(personalInfoTable);
+        }
 
         // Verify that the personal information is filled in correctly
         assertThat(checkoutInformationPage.checkTitle())
@@ -417,25 +449,24 @@ public class PlaywrightCucumberStepDefinitions {
     @And("Sally continues to the overview page for review")
     public void sheShouldBeOnTheOverviewPage(DataTable productsInCart) {
         checkoutInformationPage.buttonClick("continue");
-        double actualSubTotal = checkoutOverviewPage.getSubTotalPrice();
-        double expectedSubTotal = productsInCart.asMaps(String.class, String.class).stream()
-                .mapToDouble(product ->
-                        shoppingCartPage.removeDollarSignFromPrice(product.get("total")))
-                .sum();
+        CheckoutOverviewSnapshot overview = checkoutOverviewPage.snapshot();
+        Money expectedSubTotal = productsInCart.asMaps(String.class, String.class).stream()
+                .map(product -> Money.parse(product.get("total")))
+                .reduce(new Money(0), Money::plus);
 
         // Verify that the overview page is displayed
-        assertThat(checkoutOverviewPage.checkTitle())
-                .as("Checkout overview page title should be " + checkoutOverviewPage.getTitle())
+        assertThat(checkoutOverviewPage.checkTitle(overview))
+                .as("Checkout overview page title should be " + overview.title())
                 .isTrue();
         // Check that the product names are present in the overview page description
-        assertThat(checkoutOverviewPage.verifyCartContents(productsInCart))
+        assertThat(checkoutOverviewPage.verifyCartContents(overview, productsInCart))
                 .as("All product names should be present in the overview page description")
                 .isTrue();
 
         // Verify that the subtotal price is displayed correctly
-        assertThat(String.format("%.2f", actualSubTotal))
+        assertThat(overview.subtotal())
                 .as("Total price should match expected value")
-                .isEqualTo(String.format("%.2f", expectedSubTotal));
+                .isEqualTo(expectedSubTotal);
     }
 
     /**
@@ -468,11 +499,11 @@ public class PlaywrightCucumberStepDefinitions {
     @And("Sally checks the price total confirming that it is {double}")
     public void theTotalPriceShouldBe(Double totalPrice) {
         // Verify that the total price is displayed correctly
-        String displayedTotalPrice = checkoutOverviewPage.getTotalPrice();
+        Money displayedTotalPrice = checkoutOverviewPage.snapshot().total();
         assertThat(displayedTotalPrice)
                 .as("Total price should match expected value")
-                .isEqualTo("Total: $" + String.format("%.2f", totalPrice));
-        System.out.println(displayedTotalPrice);
+                .isEqualTo(Money.ofDollars(totalPrice));
+        System.out.println("Total: " + displayedTotalPrice);
     }
 
     /**
@@ -493,12 +524,13 @@ public class PlaywrightCucumberStepDefinitions {
         assertThat(checkoutCompletePage.checkPageUrl())
                 .as("Checkout complete page URL should be correct" )
                 .isTrue();
+        CheckoutCompleteSnapshot confirmation = checkoutCompletePage.snapshot();
         // Verify that the order confirmation message is displayed
-        assertThat(checkoutCompletePage.getOrderConfirmationMessage())
+        assertThat(checkoutCompletePage.checkOrderConfirmationMessage(confirmation))
                 .as("Order confirmation message should match expected value")
                 .isTrue();
         // Verify that the checkout complete page title is correct
-        assertThat(checkoutCompletePage.checkPageTitle())
+        assertThat(checkoutCompletePage.checkPageTitle(confirmation))
                 .as("Checkout complete page title should match expected value")
                 .isTrue();
     }
@@ -589,8 +621,9 @@ public class PlaywrightCucumberStepDefinitions {
         assertThat(productDetailsPage.checkPageUrl())
                 .as("Product details page URL should be correct")
                 .isTrue();
-        assertThat(productDetailsPage.checkTitle())
-                .as("Product details page title should be " + productDetailsPage.getTitle())
+        ProductDetailsSnapshot details = productDetailsPage.snapshot();
+        assertThat(productDetailsPage.checkTitle(details))
+                .as("Product details page title should be " + details.appLogo())
                 .isTrue();
     }
 
@@ -611,13 +644,14 @@ public class PlaywrightCucumberStepDefinitions {
             assertThat(takeScreenshot)
                     .as("Screenshot should be taken successfully")
                     .isTrue();
-            assertThat(productDetailsPage.getProductName())
+            ProductDetailsSnapshot details = productDetailsPage.snapshot();
+            assertThat(details.name())
                     .as("Product name should match expected value")
                     .isEqualTo(productName);
-            assertThat(productDetailsPage.getProductPrice())
+            assertThat(details.price())
                     .as("Product price should match expected value")
-                    .isEqualTo(productPrice);
-            assertThat(productDetailsPage.getProductDescription())
+                    .isEqualTo(Money.parse(productPrice));
+            assertThat(details.description())
                     .as("Product description should match expected value")
                     .isEqualTo(productDescription);
         }
@@ -646,9 +680,9 @@ public class PlaywrightCucumberStepDefinitions {
     @And("the price should be {string}")
     public void thePriceShouldBe(String price) {
         // Verify that the product price is displayed correctly
-        assertThat(productDetailsPage.getProductPrice())
+        assertThat(productDetailsPage.snapshot().price())
                 .as("Product price should match expected value")
-                .isEqualTo(price);
+                .isEqualTo(Money.parse(price));
     }
 
     /**
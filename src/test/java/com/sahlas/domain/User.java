@@ -1,9 +1,55 @@
 package com.sahlas.domain;
 
+import io.github.cdimascio.dotenv.Dotenv;
+
 public record User(String userName, String password) {
 
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+
     // Factory method for creating users
     public static User of(String userName, String password) {
         return new User(userName, password);
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the user for one of the Swag Labs user types, using the credentials configured in the environment.
+     *
+     * @param userType The user type (e.g. "standard_user", "visual_user").
+     * @return The User with the configured username and password.
+     * @throws IllegalArgumentException if the user type is unknown.
+     */
+    public static User forUserType(String userType) {
+        // Determine the username and password based on the user type
+        switch (userType) {
+            case "standard_user":
+                System.out.println("Logging in as standard user");
+                return new User(dotenv.get("STANDARD_USERNAME", "standard_user"),
+                        dotenv.get("STANDARD_PASSWORD", "secret_sauce"));
+            case "locked_out_user":
+                System.out.println("Logging in as locked out user");
+                return new User(dotenv.get("LOCKED_USERNAME", "locked_out_user"),
+                        dotenv.get("LOCKED_PASSWORD", "secret_sauce"));
+            case "problem_user":
+                System.out.println("Logging in as problem user");
+                return new User(dotenv.get("PROBLEM_USERNAME", "problem_user"),
+                        dotenv.get("PROBLEM_PASSWORD", "secret_sauce"));
+            case "performance_glitch_user":
+                System.out.println("Logging in as performance glitch user");
+                return new User(dotenv.get("PERFORMANCE_USERNAME", "performance_glitch_user"),
+                        dotenv.get("PERFORMANCE_PASSWORD", "secret_sauce"));
+            case "error_user":
+                System.out.println("Logging in as error user");
+                return new User(dotenv.get("ERROR_USERNAME", "error_user"),
+                        dotenv.get("ERROR_PASSWORD", "secret_sauce"));
+            case "visual_user":
+                System.out.println("Logging in as visual user");
+                return new User(dotenv.get("VISUAL_USERNAME", "visual_user"),
+                        dotenv.get("VISUAL_PASSWORD", "secret_sauce"));
+            default:
+                // Throw an exception if the user type is unknown
+                throw new IllegalArgumentException("Unknown user type: " + userType);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.sahlas.fixtures;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.qameta.allure.Allure;
+import io.qameta.allure.util.PropertiesUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AttachmentStore writes attachment content once per distinct content. Each content is stored under its SHA-256
+ * hash in ATTACHMENT_STORE (target/screenshots/content); the named copy in target/screenshots and the Allure
+ * attachment file of every result referencing it are hard links to that one file, so a screenshot that looks the same
+ * in every scenario (e.g. the login page) is written to disk once, however many results attach it.
+ * Where hard links are not supported, the content is copied from the stored file instead of from memory.
+ */
+public class AttachmentStore {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final Path ATTACHMENT_STORE = Paths.get(dotenv.get("ATTACHMENT_STORE", "target/screenshots/content"));
+    private static final Path RESULTS_DIRECTORY = Paths.get(PropertiesUtils.loadAllureProperties()
+            .getProperty("allure.results.directory", "allure-results"));
+
+    // Stored file of every content hash written by this JVM
+    private static final Map<String, Path> stored = new ConcurrentHashMap<>();
+    private static final LongAdder attachments = new LongAdder();
+    private static final LongAdder duplicates = new LongAdder();
+    private static final AtomicLong bytesWritten = new AtomicLong();
+    private static final AtomicLong bytesDeduplicated = new AtomicLong();
+    // Numbers the temporary files, so concurrent writers of the same target never share one
+    private static final AtomicLong temporaryFiles = new AtomicLong();
+
+    private AttachmentStore() {
+    }
+
+    /**
+     * Stores content once and links it to a named file and to an Allure attachment prepared with
+     * {@code AllureLifecycle.prepareAttachment}.
+     *
+     * @param content   The attachment content.
+     * @param extension The file extension, e.g. png.
+     * @param namedFile The human-readable file to expose the content as, e.g. target/screenshots/login-page.png.
+     * @param source    The source of the prepared Allure attachment.
+     * @throws UncheckedIOException if the content cannot be stored.
+     */
+    public static void write(byte[] content, String extension, Path namedFile, String source) {
+        attachments.increment();
+        String hash = sha256(content);
+        boolean[] created = new boolean[1];
+        Path file = stored.computeIfAbsent(hash, key -> {
+            created[0] = true;
+            return store(key + "." + extension, content);
+        });
+        if (created[0]) {
+            bytesWritten.addAndGet(content.length);
+        } else {
+            duplicates.increment();
+            bytesDeduplicated.addAndGet(content.length);
+        }
+        try {
+            link(file, namedFile);
+        } catch (IOException e) {
+            System.out.println("Failed to write " + namedFile + ": " + e.getMessage());
+        }
+        try {
+            link(file, RESULTS_DIRECTORY.resolve(source));
+        } catch (IOException e) {
+            // Fall back to Allure's own writer, streaming from the stored file
+            try (InputStream stream = Files.newInputStream(file)) {
+                Allure.getLifecycle().writeAttachment(source, stream);
+            } catch (IOException streamFailure) {
+                throw new UncheckedIOException("Failed to write attachment " + source, streamFailure);
+            }
+        }
+    }
+
+    /**
+     * Builds a one-line summary of the attachments written so far.
+     *
+     * @return The attachment and deduplication statistics as a String.
+     */
+    public static String report() {
+        return String.format("Attachments: %d (%d distinct, %d duplicates), written=%.1f MB, deduplicated=%.1f MB",
+                attachments.sum(), stored.size(), duplicates.sum(),
+                bytesWritten.get() / (1024.0 * 1024), bytesDeduplicated.get() / (1024.0 * 1024));
+    }
+
+    private static Path store(String fileName, byte[] content) {
+        Path file = ATTACHMENT_STORE.resolve(fileName);
+        try {
+            Files.createDirectories(ATTACHMENT_STORE);
+            // Identical content from an earlier JVM of the same build is reused as it is
+            if (!Files.exists(file)) {
+                Path temporary = temporaryFor(file);
+                Files.write(temporary, content);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store attachment " + fileName, e);
+        }
+    }
+
+    // Replaces the target atomically, so concurrent writers of the same name never see a missing or partial file
+    private static void link(Path file, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        if (Files.exists(target) && Files.isSameFile(file, target)) {
+            return;
+        }
+        Path temporary = temporaryFor(target);
+        Files.deleteIfExists(temporary);
+        try {
+            Files.createLink(temporary, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, temporary, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path temporaryFor(Path file) {
+        return file.resolveSibling(file.getFileName() + "." + temporaryFiles.incrementAndGet() + ".tmp");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.List;
+
+/**
+ * BrowserLauncher obtains a browser for the fixtures, either by attaching to a shared Playwright server or by
+ * launching one locally.
+ * When PLAYWRIGHT_SERVER_ENDPOINT is set (e.g. ws://127.0.0.1:3000/ for {@code npx playwright run-server --port 3000}),
+ * every browser is a connection to that server, so several test JVMs on one machine share its browser processes.
+ * If the server cannot be reached the browser is launched locally, and the server is not tried again for
+ * PLAYWRIGHT_SERVER_RETRY_INTERVAL ms. Callers replace a browser whose connection dropped by calling
+ * {@link #launch} again, which reconnects to the server once it is back.
+ */
+public class BrowserLauncher {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String PLAYWRIGHT_SERVER_ENDPOINT = dotenv.get("PLAYWRIGHT_SERVER_ENDPOINT", "");
+    private static final double PLAYWRIGHT_SERVER_CONNECT_TIMEOUT = Double.parseDouble(dotenv.get("PLAYWRIGHT_SERVER_CONNECT_TIMEOUT", "5000"));
+    private static final long PLAYWRIGHT_SERVER_RETRY_INTERVAL = Long.parseLong(dotenv.get("PLAYWRIGHT_SERVER_RETRY_INTERVAL", "30000"));
+
+    // Until this time the server is considered down and browsers are launched locally
+    private static volatile long serverUnavailableUntil;
+
+    private BrowserLauncher() {
+    }
+
+    /**
+     * Connects to the configured Playwright server, or launches a local browser if none is configured or reachable.
+     *
+     * @param playwright  The Playwright driver of the calling thread.
+     * @param browserName The browser type: chromium, firefox or webkit. Unknown names fall back to chromium.
+     * @param headless    Whether a locally launched browser runs headless.
+     * @param args        Extra arguments for a locally launched browser.
+     * @return A connected or launched Browser.
+     */
+    public static Browser launch(Playwright playwright, String browserName, boolean headless, List<String> args) {
+        BrowserType browserType = browserType(playwright, browserName);
+        if (!PLAYWRIGHT_SERVER_ENDPOINT.isBlank() && System.currentTimeMillis() >= serverUnavailableUntil) {
+            try {
+                Browser browser = browserType.connect(PLAYWRIGHT_SERVER_ENDPOINT,
+                        new BrowserType.ConnectOptions().setTimeout(PLAYWRIGHT_SERVER_CONNECT_TIMEOUT));
+                browser.onDisconnected(disconnected ->
+                        System.out.println("Lost connection to Playwright server " + PLAYWRIGHT_SERVER_ENDPOINT));
+                return browser;
+            } catch (PlaywrightException e) {
+                serverUnavailableUntil = System.currentTimeMillis() + PLAYWRIGHT_SERVER_RETRY_INTERVAL;
+                System.out.println("Playwright server " + PLAYWRIGHT_SERVER_ENDPOINT + " is not available, " +
+                        "launching " + browserType.name() + " locally: " + e.getMessage());
+            }
+        }
+        return browserType.launch(
+                new BrowserType.LaunchOptions()
+                        .setHeadless(headless)
+                        .setArgs(args.stream()
+                                .filter(arg -> !arg.isBlank())
+                                .toList())
+        );
+    }
+
+    private static BrowserType browserType(Playwright playwright, String browserName) {
+        if (browserName.equalsIgnoreCase("firefox")) {
+            return playwright.firefox();
+        } else if (browserName.equalsIgnoreCase("webkit")) {
+            return playwright.webkit();
+        }
+        return playwright.chromium();
+    }
+}
@@ -0,0 +1,257 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * BrowserPool pre-launches a configurable number of browsers and leases them to scenarios.
+ * A leased browser is returned to the pool when the scenario closes its context, so browsers stay warm
+ * across scenarios and worker threads instead of being cold-started per thread.
+ * Crashed browsers are detected on lease and release and replaced with a freshly launched one.
+ * Browsers come from the {@link BrowserLauncher}, so with a Playwright server configured each pooled browser is a
+ * connection to the server, and a dropped connection is re-established by that replacement.
+ * <p>
+ * Browsers grow over a long run, so a returned browser is also recycled (closed and relaunched) once it has served
+ * BROWSER_RECYCLE_AFTER_CONTEXTS contexts or its driver and browser processes use more than
+ * BROWSER_RECYCLE_MEMORY_MB resident memory; 0 disables either limit.
+ */
+public class BrowserPool {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    // auto sizes the pool to the parallelism chosen by the ResourceBudget, one browser per concurrent scenario
+    private static final String BROWSER_POOL_SIZE = dotenv.get("BROWSER_POOL_SIZE", "auto");
+    private static final long BROWSER_POOL_LEASE_TIMEOUT = Long.parseLong(dotenv.get("BROWSER_POOL_LEASE_TIMEOUT", "120000"));
+    private static final int BROWSER_RECYCLE_AFTER_CONTEXTS = Integer.parseInt(dotenv.get("BROWSER_RECYCLE_AFTER_CONTEXTS", "50"));
+    private static final long BROWSER_RECYCLE_MEMORY_MB = Long.parseLong(dotenv.get("BROWSER_RECYCLE_MEMORY_MB", "1024"));
+
+    private static final BrowserPool INSTANCE = new BrowserPool(BROWSER_POOL_SIZE.equalsIgnoreCase("auto")
+            ? ResourceBudget.sizing().parallelism()
+            : Integer.parseInt(BROWSER_POOL_SIZE));
+
+    private final int size;
+    private final BlockingQueue<PooledBrowser> idle = new LinkedBlockingQueue<>();
+    private final Set<PooledBrowser> launched = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private boolean warmedUp;
+    private volatile boolean closed;
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder replaced = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    // Driver processes are attributed to browsers by the child process each Playwright.create() adds
+    private final Object driverLaunch = new Object();
+
+    BrowserPool(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Browser pool size must be at least 1: " + size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the shared browser pool for this JVM.
+     *
+     * @return The shared BrowserPool instance.
+     */
+    public static BrowserPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a pool of its own for a harness that sizes its browsers itself, such as the load generator.
+     *
+     * @param size The number of browsers.
+     * @return A new BrowserPool; the caller shuts it down.
+     * @throws IllegalArgumentException if the size is less than 1.
+     */
+    public static BrowserPool ofSize(int size) {
+        return new BrowserPool(size);
+    }
+
+    /**
+     * Leases a warm browser, waiting for one to be returned if all browsers are in use.
+     * The first lease launches every browser of the pool in parallel.
+     *
+     * @return A healthy pooled browser owned by the caller until {@link #release(PooledBrowser)}.
+     * @throws IllegalStateException if no browser becomes available within the lease timeout.
+     */
+    public PooledBrowser lease() {
+        warmUp();
+        long start = System.nanoTime();
+        PooledBrowser pooled;
+        try {
+            pooled = idle.poll(BROWSER_POOL_LEASE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled browser", e);
+        }
+        if (pooled == null) {
+            throw new IllegalStateException("No pooled browser became available within " + BROWSER_POOL_LEASE_TIMEOUT + " ms");
+        }
+        long waited = System.nanoTime() - start;
+        leases.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!pooled.isHealthy()) {
+            pooled = replace(pooled);
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns a leased browser to the pool, replacing it first if it is no longer healthy
+     * and recycling it if it reached the context or memory limit.
+     *
+     * @param pooled The browser previously obtained from {@link #lease()}.
+     */
+    public void release(PooledBrowser pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (closed) {
+            pooled.close();
+            return;
+        }
+        if (!pooled.isHealthy()) {
+            pooled = replace(pooled);
+        } else {
+            String recycleReason = recycleReason(pooled);
+            if (recycleReason != null) {
+                pooled = recycle(pooled, recycleReason);
+            }
+        }
+        idle.offer(pooled);
+    }
+
+    /**
+     * Closes every browser launched by the pool and prints the lease wait statistics.
+     */
+    public synchronized void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        launched.forEach(PooledBrowser::close);
+        launched.clear();
+        idle.clear();
+        System.out.println(report());
+    }
+
+    /**
+     * Builds a one-line summary of the lease wait times observed so far.
+     *
+     * @return The pool statistics as a String.
+     */
+    public String report() {
+        long count = leases.sum();
+        double averageMs = count == 0 ? 0 : totalWaitNanos.sum() / (double) count / 1_000_000;
+        return String.format("Browser pool: size=%d, leases=%d, average wait=%.1f ms, max wait=%.1f ms, replaced=%d, recycled=%d",
+                size, count, averageMs, maxWaitNanos.get() / 1_000_000.0, replaced.sum(), recycled.sum());
+    }
+
+    private synchronized void warmUp() {
+        if (warmedUp) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("Browser pool has been shut down");
+        }
+        long start = System.nanoTime();
+        ExecutorService launcher = Executors.newFixedThreadPool(size);
+        try {
+            List<Future<PooledBrowser>> launches = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                launches.add(launcher.submit(this::launch));
+            }
+            for (Future<PooledBrowser> launch : launches) {
+                idle.offer(launch.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to launch pooled browser", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while launching pooled browsers", e);
+        } finally {
+            launcher.shutdown();
+        }
+        warmedUp = true;
+        System.out.printf("Browser pool warmed up %d browsers in %d ms%n",
+                size, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private PooledBrowser replace(PooledBrowser crashed) {
+        System.out.println("Replacing unhealthy pooled browser " + crashed.getId());
+        crashed.close();
+        launched.remove(crashed);
+        replaced.increment();
+        return launch();
+    }
+
+    private String recycleReason(PooledBrowser pooled) {
+        if (BROWSER_RECYCLE_AFTER_CONTEXTS > 0 && pooled.getContextsCreated() >= BROWSER_RECYCLE_AFTER_CONTEXTS) {
+            return pooled.getContextsCreated() + " contexts";
+        }
+        if (BROWSER_RECYCLE_MEMORY_MB > 0) {
+            long resident = pooled.residentMemoryMb();
+            if (resident >= BROWSER_RECYCLE_MEMORY_MB) {
+                return resident + " MB resident";
+            }
+        }
+        return null;
+    }
+
+    private PooledBrowser recycle(PooledBrowser pooled, String reason) {
+        System.out.println("Recycling pooled browser " + pooled.getId() + " after " + reason);
+        pooled.close();
+        launched.remove(pooled);
+        recycled.increment();
+        return launch();
+    }
+
+    private PooledBrowser launch() {
+        Playwright playwright;
+        ProcessHandle driver;
+        synchronized (driverLaunch) {
+            Set<Long> before = childPids();
+            playwright = Playwright.create();
+            driver = ProcessHandle.current().children()
+                    .filter(process -> !before.contains(process.pid()))
+                    .findFirst()
+                    .orElse(null);
+        }
+        playwright.selectors().setTestIdAttribute("data-test");
+        Browser browser = BrowserLauncher.launch(playwright, "chromium", true,
+                Arrays.asList("--no-sandbox", "--disable-extensions", "--disable-gpu"));
+        PooledBrowser pooled = new PooledBrowser(nextId.incrementAndGet(), playwright, browser, driver);
+        launched.add(pooled);
+        return pooled;
+    }
+
+    private static Set<Long> childPids() {
+        return ProcessHandle.current().children()
+                .map(ProcessHandle::pid)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,115 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.sahlas.swaglabs.catalog.Product;
+import com.sahlas.swaglabs.catalog.SwagLabsCatalog;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * CartSeeder puts products in the cart without going through the add-to-cart buttons.
+ * Like saucedemo.com, the application keeps the cart client-side, in localStorage under "cart-contents" as a list of
+ * inventory ids, so the cart is seeded by an init script of the BrowserContext that writes that entry before the
+ * application's own scripts run. Seeding before the first navigation costs no round trips at all.
+ * <p>
+ * Each seeding is applied only once, so products the scenario adds or removes afterwards are kept across navigations,
+ * and several seedings of one context apply in order.
+ */
+public class CartSeeder {
+    private static final String CART_KEY = "cart-contents";
+    private static final String SEED_KEY = "cart-seed";
+    private static final String SEED_SCRIPT = """
+            (function (origin, cartKey, ids, merge, seedKey, seed) {
+                if (location.origin !== origin) {
+                    return;
+                }
+                try {
+                    var seeds = JSON.parse(localStorage.getItem(seedKey)) || [];
+                    if (seeds.indexOf(seed) < 0) {
+                        var cart = merge ? JSON.parse(localStorage.getItem(cartKey)) || [] : [];
+                        ids.forEach(function (id) {
+                            if (cart.indexOf(id) < 0) {
+                                cart.push(id);
+                            }
+                        });
+                        localStorage.setItem(cartKey, JSON.stringify(cart));
+                        seeds.push(seed);
+                        localStorage.setItem(seedKey, JSON.stringify(seeds));
+                    }
+                } catch (e) {
+                    // Storage is not available in this document, e.g. about:blank
+                }
+            })(%s, %s, %s, %s, %s, %s);
+            """;
+    // Adds to the cart of the document already showing the application
+    private static final String ADD_SCRIPT = """
+            ([cartKey, ids]) => {
+                const cart = JSON.parse(localStorage.getItem(cartKey)) || [];
+                ids.filter(id => !cart.includes(id)).forEach(id => cart.push(id));
+                localStorage.setItem(cartKey, JSON.stringify(cart));
+            }
+            """;
+
+    private CartSeeder() {
+    }
+
+    /**
+     * Seeds the cart of every page of the context that navigates to the application from now on.
+     * Pages already showing the application see the cart after their next navigation.
+     *
+     * @param context      The scenario's BrowserContext.
+     * @param productNames The names of the products to put in the cart, e.g. "Sauce Labs Backpack".
+     * @throws IllegalArgumentException if a product is not sold by saucedemo.com.
+     */
+    public static void seed(BrowserContext context, List<String> productNames) {
+        addInitScript(context, ids(productNames), false);
+    }
+
+    /**
+     * Adds products to the cart, keeping the products already in it. When the page shows the application the cart is
+     * written to its storage at once, otherwise it is seeded for the context's next navigation to the application.
+     * Either way the page displays the products after its next navigation.
+     *
+     * @param context      The scenario's BrowserContext.
+     * @param page         The scenario's page.
+     * @param productNames The names of the products to add, e.g. "Sauce Labs Backpack".
+     * @throws IllegalArgumentException if a product is not sold by saucedemo.com.
+     */
+    public static void add(BrowserContext context, Page page, List<String> productNames) {
+        List<Integer> ids = ids(productNames);
+        if (page.url().startsWith(origin() + "/")) {
+            page.evaluate(ADD_SCRIPT, List.of(CART_KEY, ids));
+            System.out.println("Added " + ids + " to the cart of " + page.url());
+        } else {
+            addInitScript(context, ids, true);
+        }
+    }
+
+    private static void addInitScript(BrowserContext context, List<Integer> ids, boolean merge) {
+        String origin = origin();
+        context.addInitScript(String.format(SEED_SCRIPT, quote(origin), quote(CART_KEY), ids, merge, quote(SEED_KEY),
+                quote(UUID.randomUUID().toString())));
+        System.out.println((merge ? "Seeded cart additions " : "Seeded cart ") + ids + " for " + origin);
+    }
+
+    private static List<Integer> ids(List<String> productNames) {
+        return productNames.stream()
+                .map(name -> SwagLabsCatalog.findByName(name)
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown product: " + name)))
+                .map(Product::id)
+                .distinct()
+                .toList();
+    }
+
+    private static String origin() {
+        URI home = URI.create(SwagLabsUrls.url("URL", ""));
+        return home.getScheme() + "://" + home.getRawAuthority();
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+}
@@ -0,0 +1,137 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.Cookie;
+import com.sahlas.domain.User;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.Scenario;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ClientStateSetup puts the application into the state the mutating steps of the page objects would leave it in
+ * (logged in, products in the cart, checkout information filled in) by writing that state into the browser directly,
+ * for scenarios that only need it as a precondition. Steps of scenarios tagged {@value #STATE_SETUP_TAG} use it
+ * instead of the page objects.
+ * <p>
+ * Swag Labs has no API to call: it keeps its state on the client. The session is the "session-username" cookie that
+ * the login form sets, the cart is client-side storage and the checkout information lives in the form only. The
+ * scenarios start from the {@link LoginStateCache} like any other; when the cache does not apply, the session cookie is
+ * written into the BrowserContext's cookie jar and checked on the inventory page. The cart goes to the context's
+ * storage through the {@link CartSeeder}, and the form is filled in a single evaluation instead of one action per
+ * field.
+ */
+public class ClientStateSetup {
+    /**
+     * Tag selecting the client state setup for the precondition steps of a scenario.
+     */
+    public static final String STATE_SETUP_TAG = "@state-setup";
+
+    private static final String SESSION_COOKIE = "session-username";
+    // The user names the login form accepts; locked_out_user is refused by the form, so it cannot be set up here
+    private static final Set<String> LOGIN_USERS = Set.of("standard_user", "problem_user", "performance_glitch_user",
+            "error_user", "visual_user");
+    private static final String HOME_URL = SwagLabsUrls.url("URL", "");
+    private static final String INVENTORY_URL = SwagLabsUrls.url("PRODUCT_LIST_PAGE_URL", "inventory.html");
+    // Sets the values through the native setter and dispatches input events, so the application sees typed input
+    private static final String FILL_SCRIPT = """
+            fields => {
+                const setValue = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;
+                Object.entries(fields).forEach(([testId, value]) => {
+                    const input = document.querySelector('[data-test="' + testId + '"]');
+                    if (!input) {
+                        throw new Error('Missing checkout field ' + testId);
+                    }
+                    setValue.call(input, value);
+                    input.dispatchEvent(new Event('input', {bubbles: true}));
+                    input.dispatchEvent(new Event('change', {bubbles: true}));
+                });
+            }
+            """;
+
+    private final BrowserContext context;
+    private final Page page;
+
+    /**
+     * Creates the state setup of a scenario.
+     *
+     * @param context The scenario's BrowserContext.
+     * @param page    The scenario's page.
+     */
+    public ClientStateSetup(BrowserContext context, Page page) {
+        this.context = context;
+        this.page = page;
+    }
+
+    /**
+     * Checks whether a scenario sets up its preconditions in the client state.
+     *
+     * @param scenario The scenario about to start.
+     * @return true if the scenario, its rule or its feature is tagged {@value #STATE_SETUP_TAG}.
+     */
+    public static boolean appliesTo(Scenario scenario) {
+        return scenario.getSourceTagNames().contains(STATE_SETUP_TAG);
+    }
+
+    /**
+     * Logs a user in by setting the session cookie the login form would set, then opens the inventory page to check
+     * that the application accepts the session. Swag Labs answers every page with 200 and only the client-side router
+     * sends a visitor without a session back to the login page, so the check waits for the rendered products. Only
+     * needed when the scenario's context was not created from the cached login state.
+     *
+     * @param user The user to log in as.
+     * @throws IllegalArgumentException if the login form would refuse the user.
+     * @throws IllegalStateException    if the inventory page does not display the products.
+     */
+    public void loginUser(User user) {
+        if (!LOGIN_USERS.contains(user.userName())) {
+            throw new IllegalArgumentException("User " + user.userName() + " cannot be logged in without the UI");
+        }
+        long start = System.nanoTime();
+        context.addCookies(List.of(new Cookie(SESSION_COOKIE, user.userName()).setUrl(HOME_URL)));
+        page.navigate(INVENTORY_URL);
+        NavigationTiming.capture(page);
+        try {
+            page.getByTestId("inventory-item").first().waitFor();
+        } catch (TimeoutError e) {
+            throw new IllegalStateException("The session of " + user.userName() + " was refused, the page stayed at "
+                    + page.url(), e);
+        }
+        System.out.println("Logged in as " + user.userName() + " through the session cookie in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Adds a product to the cart without clicking its add-to-cart button.
+     * The page displays the product after its next navigation.
+     *
+     * @param productName The name of the product, e.g. "Sauce Labs Backpack".
+     * @throws IllegalArgumentException if the product is not sold by saucedemo.com.
+     */
+    public void addProductToCart(String productName) {
+        CartSeeder.add(context, page, List.of(productName));
+    }
+
+    /**
+     * Fills in the personal information form of the checkout information page.
+     *
+     * @param personalInfoTable A DataTable containing personal information with keys:
+     *                          "first_name", "last_name", and "postal_code".
+     * @throws IllegalArgumentException if the DataTable is empty.
+     */
+    public void fillInPersonalInformation(DataTable personalInfoTable) {
+        List<Map<String, String>> personalInfo = personalInfoTable.asMaps(String.class, String.class);
+        if (personalInfo.isEmpty()) {
+            throw new IllegalArgumentException("Personal information table is empty");
+        }
+        Map<String, String> info = personalInfo.get(0);
+        page.evaluate(FILL_SCRIPT, Map.of(
+                "firstName", info.get("first_name"),
+                "lastName", info.get("last_name"),
+                "postalCode", info.get("postal_code")));
+    }
+}
@@ -0,0 +1,264 @@
+package com.sahlas.fixtures;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * ImageDiff compares two screenshots pixel by pixel with a perceptual colour distance, in tiles compared in parallel.
+ * Identical PNG bytes match without decoding; otherwise each tile first compares its rows as raw pixels, which exits
+ * early for the tiles that did not change, and only changed rows are compared pixel by pixel.
+ * Two pixels differ when their squared YIQ colour difference exceeds 35215 * threshold², the largest difference
+ * scaled by the square of the threshold as in pixelmatch, so anti-aliasing and compression noise below the threshold
+ * is ignored. Pixels inside a mask are never compared.
+ */
+public class ImageDiff {
+    // The largest possible YIQ distance, between black and white
+    private static final double MAX_YIQ_DELTA = 35215;
+    private static final int DIFF_COLOUR = 0xFFFF0000;
+
+    private final int tileSize;
+    private final double maxDelta;
+    private final ForkJoinPool pool;
+
+    /**
+     * The outcome of a comparison.
+     *
+     * @param width           The width compared, the larger of both images.
+     * @param height          The height compared, the larger of both images.
+     * @param differentPixels The pixels whose distance exceeds the threshold, including pixels outside the smaller image.
+     * @param differentTiles  The tiles holding at least one different pixel.
+     * @param diff            The actual image with the different pixels in red, or null when no pixel differs.
+     */
+    public record Result(int width, int height, long differentPixels, int differentTiles, BufferedImage diff) {
+        /**
+         * Computes the share of different pixels.
+         *
+         * @return The different pixels divided by all compared pixels.
+         */
+        public double ratio() {
+            return width == 0 || height == 0 ? 0 : differentPixels / ((double) width * height);
+        }
+
+        /**
+         * Encodes the diff image.
+         *
+         * @return The diff image as PNG bytes.
+         * @throws IllegalStateException if there is no diff image.
+         */
+        public byte[] diffPng() {
+            if (diff == null) {
+                throw new IllegalStateException("The images do not differ");
+            }
+            try {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(diff, "png", png);
+                return png.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to encode the diff image", e);
+            }
+        }
+    }
+
+    /**
+     * Creates a diff engine.
+     *
+     * @param tileSize  The edge of the square tiles compared in parallel, in pixels.
+     * @param threshold The colour distance (0..1) above which two pixels differ.
+     * @param pool      The pool comparing the tiles.
+     */
+    public ImageDiff(int tileSize, double threshold, ForkJoinPool pool) {
+        if (tileSize < 1 || threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("Invalid image diff settings: tile size " + tileSize + ", threshold " + threshold);
+        }
+        this.tileSize = tileSize;
+        // The threshold scales the colour distance, and the YIQ difference is its square
+        this.maxDelta = MAX_YIQ_DELTA * threshold * threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Compares a screenshot with its baseline.
+     *
+     * @param baselinePng The baseline PNG bytes.
+     * @param actualPng   The screenshot PNG bytes.
+     * @param masks       The regions, in page pixels, that are not compared.
+     * @return The comparison result.
+     * @throws UncheckedIOException if an image cannot be decoded.
+     */
+    public Result compare(byte[] baselinePng, byte[] actualPng, List<Rectangle> masks) {
+        if (Arrays.equals(baselinePng, actualPng)) {
+            return new Result(0, 0, 0, 0, null);
+        }
+        // Decoding takes most of the time of a comparison, so both images are decoded at once
+        ForkJoinTask<BufferedImage> baselineDecoding = pool.submit(() -> decode(baselinePng));
+        BufferedImage actualImage = inPool(() -> decode(actualPng));
+        BufferedImage baselineImage = inPool(baselineDecoding::join);
+        int[] baseline = pixels(baselineImage);
+        int[] actual = pixels(actualImage);
+        int width = Math.max(baselineImage.getWidth(), actualImage.getWidth());
+        int height = Math.max(baselineImage.getHeight(), actualImage.getHeight());
+        boolean[] masked = mask(width, height, masks);
+
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+        long[] tileDifferences = inPool(() -> IntStream.range(0, columns * rows)
+                .parallel()
+                .mapToLong(tile -> compareTile(tile % columns, tile / columns, baselineImage, baseline,
+                        actualImage, actual, width, height, masked, null))
+                .toArray());
+        long differentPixels = Arrays.stream(tileDifferences).sum();
+        if (differentPixels == 0) {
+            return new Result(width, height, 0, 0, null);
+        }
+
+        // Only a mismatch pays for the diff image: the faded actual image, with the different tiles compared again
+        // to paint their different pixels red
+        int[] diff = new int[width * height];
+        inPool(() -> IntStream.range(0, height).parallel().forEach(y -> {
+            for (int x = 0; x < width; x++) {
+                boolean hasActual = x < actualImage.getWidth() && y < actualImage.getHeight();
+                diff[y * width + x] = fade(hasActual ? actual[y * actualImage.getWidth() + x] : 0xFFFFFFFF);
+            }
+        }));
+        inPool(() -> IntStream.range(0, columns * rows)
+                .parallel()
+                .filter(tile -> tileDifferences[tile] > 0)
+                .forEach(tile -> compareTile(tile % columns, tile / columns, baselineImage, baseline,
+                        actualImage, actual, width, height, masked, diff)));
+        int differentTiles = (int) Arrays.stream(tileDifferences).filter(count -> count > 0).count();
+        BufferedImage diffImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        diffImage.setRGB(0, 0, width, height, diff, 0, width);
+        return new Result(width, height, differentPixels, differentTiles, diffImage);
+    }
+
+    // Counts the different pixels of one tile and, when given a diff, paints them red in it
+    private long compareTile(int column, int row, BufferedImage baselineImage, int[] baseline,
+                             BufferedImage actualImage, int[] actual, int width, int height, boolean[] masked, int[] diff) {
+        int left = column * tileSize;
+        int top = row * tileSize;
+        int right = Math.min(left + tileSize, width);
+        int bottom = Math.min(top + tileSize, height);
+        int baselineWidth = baselineImage.getWidth();
+        int baselineHeight = baselineImage.getHeight();
+        int actualWidth = actualImage.getWidth();
+        int actualHeight = actualImage.getHeight();
+        long different = 0;
+        for (int y = top; y < bottom; y++) {
+            // Unchanged rows, by far the most common case, are skipped with a vectorized comparison
+            if (y < baselineHeight && y < actualHeight && right <= baselineWidth && right <= actualWidth
+                    && Arrays.mismatch(baseline, y * baselineWidth + left, y * baselineWidth + right,
+                    actual, y * actualWidth + left, y * actualWidth + right) < 0) {
+                continue;
+            }
+            for (int x = left; x < right; x++) {
+                if (masked[y * width + x]) {
+                    continue;
+                }
+                boolean hasBaseline = x < baselineWidth && y < baselineHeight;
+                boolean hasActual = x < actualWidth && y < actualHeight;
+                if (!hasBaseline || !hasActual || delta(baseline[y * baselineWidth + x], actual[y * actualWidth + x]) > maxDelta) {
+                    different++;
+                    if (diff != null) {
+                        diff[y * width + x] = DIFF_COLOUR;
+                    }
+                }
+            }
+        }
+        return different;
+    }
+
+    private <T> T inPool(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing images", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to compare images", e.getCause());
+        }
+    }
+
+    private void inPool(Runnable task) {
+        inPool(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // The squared YIQ colour difference of two ARGB pixels, blended over white, from 0 to MAX_YIQ_DELTA
+    private static double delta(int first, int second) {
+        if (first == second) {
+            return 0;
+        }
+        double[] a = blend(first);
+        double[] b = blend(second);
+        double dy = 0.29889531 * (a[0] - b[0]) + 0.58662247 * (a[1] - b[1]) + 0.11448223 * (a[2] - b[2]);
+        double di = 0.59597799 * (a[0] - b[0]) - 0.27417610 * (a[1] - b[1]) - 0.32180189 * (a[2] - b[2]);
+        double dq = 0.21147017 * (a[0] - b[0]) - 0.52261711 * (a[1] - b[1]) + 0.31114694 * (a[2] - b[2]);
+        return 0.5053 * dy * dy + 0.299 * di * di + 0.1957 * dq * dq;
+    }
+
+    private static double[] blend(int argb) {
+        double alpha = (argb >>> 24) / 255.0;
+        return new double[]{
+                255 + (((argb >> 16) & 0xFF) - 255) * alpha,
+                255 + (((argb >> 8) & 0xFF) - 255) * alpha,
+                255 + ((argb & 0xFF) - 255) * alpha
+        };
+    }
+
+    private static int fade(int argb) {
+        int grey = (((argb >> 16) & 0xFF) + ((argb >> 8) & 0xFF) + (argb & 0xFF)) / 3;
+        int faded = 255 - (255 - grey) / 4;
+        return 0xFF000000 | faded << 16 | faded << 8 | faded;
+    }
+
+    private static boolean[] mask(int width, int height, List<Rectangle> masks) {
+        boolean[] masked = new boolean[width * height];
+        Rectangle bounds = new Rectangle(0, 0, width, height);
+        for (Rectangle mask : masks) {
+            Rectangle region = mask.intersection(bounds);
+            if (region.isEmpty()) {
+                continue;
+            }
+            for (int y = region.y; y < region.y + region.height; y++) {
+                Arrays.fill(masked, y * width + region.x, y * width + region.x + region.width, true);
+            }
+        }
+        return masked;
+    }
+
+    private static BufferedImage decode(byte[] png) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new UncheckedIOException(new IOException("Not a readable image"));
+            }
+            if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+                return image;
+            }
+            BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            converted.getGraphics().drawImage(image, 0, 0, null);
+            return converted;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode screenshot", e);
+        }
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}
@@ -0,0 +1,41 @@
+package com.sahlas.fixtures;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares single-pixel images with the default threshold of 0.1, which pixelmatch applies as a YIQ difference of
+ * 35215 * 0.1² = 352.15.
+ */
+class ImageDiffTest {
+    private static final int WHITE = 0xFFFFFFFF;
+    private final ImageDiff imageDiff = new ImageDiff(16, 0.1, ForkJoinPool.commonPool());
+
+    @Test
+    void greyBelowThresholdMatchesWhite() throws IOException {
+        // A difference of 15 per channel is a YIQ difference of 0.5053 * 15² = 113.7
+        assertThat(imageDiff.compare(png(WHITE), png(0xFFF0F0F0), List.of()).differentPixels()).isZero();
+    }
+
+    @Test
+    void greyAboveThresholdDiffersFromWhite() throws IOException {
+        // A difference of 63 per channel is a YIQ difference of 0.5053 * 63² = 2005.5
+        assertThat(imageDiff.compare(png(WHITE), png(0xFFC0C0C0), List.of()).differentPixels()).isEqualTo(1);
+    }
+
+    private static byte[] png(int argb) throws IOException {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, argb);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+}
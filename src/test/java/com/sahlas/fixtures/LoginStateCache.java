@@ -0,0 +1,87 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.sahlas.domain.User;
+import com.sahlas.swaglabs.catalog.pageobjects.LoginPage;
+import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * LoginStateCache logs each user type in through the UI once per run and keeps the resulting
+ * {@link BrowserContext#storageState()}, so later scenarios can start in an already authenticated context.
+ * Scenarios tagged {@value #UI_LOGIN_TAG} always get an unauthenticated context and exercise the real login.
+ */
+public class LoginStateCache {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final boolean LOGIN_STATE_CACHE = dotenv.get("LOGIN_STATE_CACHE", "true").equalsIgnoreCase("true");
+    private static final String USER_TYPE = dotenv.get("USER_TYPE", "standard_user");
+    private static final double LOGIN_TIMEOUT = Double.parseDouble(dotenv.get("LOGIN_STATE_CACHE_TIMEOUT", "10000"));
+
+    /**
+     * Tag marking scenarios that test the login page itself and must not start authenticated.
+     */
+    public static final String UI_LOGIN_TAG = "@ui-login";
+
+    // An empty Optional records a user type whose login does not reach the inventory page (e.g. locked_out_user)
+    private static final ConcurrentMap<String, Optional<String>> storageStates = new ConcurrentHashMap<>();
+
+    private LoginStateCache() {
+    }
+
+    /**
+     * Checks whether a scenario should start in a pre-authenticated context.
+     *
+     * @param scenario The scenario about to start.
+     * @return true if the cache is enabled and the scenario is not a login-specific scenario.
+     */
+    public static boolean appliesTo(Scenario scenario) {
+        return LOGIN_STATE_CACHE && !scenario.getSourceTagNames().contains(UI_LOGIN_TAG);
+    }
+
+    /**
+     * Retrieves the user type configured for this run.
+     *
+     * @return The configured USER_TYPE, defaulting to "standard_user".
+     */
+    public static String currentUserType() {
+        return USER_TYPE;
+    }
+
+    /**
+     * Retrieves the storage state of an authenticated session for a user type, logging in on first use.
+     * Concurrent callers for the same user type wait for the single login in progress.
+     *
+     * @param userType The user type to log in as.
+     * @param browser  The browser used for the one-off login.
+     * @return The storage state JSON, or empty if this user type cannot log in.
+     */
+    public static Optional<String> storageStateFor(String userType, Browser browser) {
+        return storageStates.computeIfAbsent(userType, type -> logIn(type, browser));
+    }
+
+    private static Optional<String> logIn(String userType, Browser browser) {
+        long start = System.currentTimeMillis();
+        try (BrowserContext context = browser.newContext()) {
+            Page page = context.newPage();
+            LoginPage loginPage = new LoginPage(page);
+            loginPage.openHomePage();
+            loginPage.loginUser(User.forUserType(userType));
+            page.waitForURL("**/inventory.html", new Page.WaitForURLOptions().setTimeout(LOGIN_TIMEOUT));
+            String storageState = context.storageState();
+            System.out.println("Cached login state for " + userType + " in " + (System.currentTimeMillis() - start) + " ms");
+            return Optional.of(storageState);
+        } catch (PlaywrightException e) {
+            System.out.println("Login state for " + userType + " cannot be cached, falling back to UI login: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sahlas.fixtures;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.qameta.allure.Allure;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * MemorySampler records the resident memory of the leased browser and the JVM heap at the end of every scenario,
+ * per worker, so that memory growth over a long run shows up in the report instead of as slowly degrading scenarios.
+ * Each sample is attached to its scenario in Allure; at the end of the run all samples are written to
+ * MEMORY_REPORT (target/browser-memory.csv) and summarized per browser.
+ */
+public class MemorySampler {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String MEMORY_REPORT = dotenv.get("MEMORY_REPORT", "target/browser-memory.csv");
+
+    private static final Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The memory of one worker at the end of a scenario.
+     *
+     * @param scenario  The scenario name.
+     * @param worker    The worker thread.
+     * @param browser   The pooled browser id.
+     * @param contexts  The contexts the browser has served since it was launched.
+     * @param browserMb The resident memory of the browser and its driver in MB.
+     * @param heapMb    The used JVM heap in MB.
+     */
+    public record Sample(String scenario, String worker, String browser, int contexts, long browserMb, long heapMb) {
+        @Override
+        public String toString() {
+            return String.format("worker=%s, browser=%s, contexts=%d, browser memory=%d MB, heap=%d MB",
+                    worker, browser, contexts, browserMb, heapMb);
+        }
+    }
+
+    private MemorySampler() {
+    }
+
+    /**
+     * Samples the memory of the current worker and attaches it to the running scenario.
+     *
+     * @param scenario The scenario that just finished.
+     * @param pooled   The scenario's pooled browser, or null if the scenario could not lease one.
+     * @return The recorded sample, or null without a pooled browser.
+     */
+    public static Sample sample(String scenario, PooledBrowser pooled) {
+        if (pooled == null) {
+            return null;
+        }
+        long heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        Sample sample = new Sample(scenario, Thread.currentThread().getName(), String.valueOf(pooled.getId()),
+                pooled.getContextsCreated(), pooled.residentMemoryMb(), heapMb);
+        samples.add(sample);
+        Allure.addAttachment("Memory", "text/plain", sample.toString());
+        return sample;
+    }
+
+    /**
+     * Writes every sample to MEMORY_REPORT and summarizes the memory of each browser over the run.
+     *
+     * @return The memory summary as a String.
+     */
+    public static String report() {
+        if (samples.isEmpty()) {
+            return "Memory samples: none";
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("scenario,worker,browser,contexts,browser_mb,heap_mb");
+        Map<String, List<Sample>> byBrowser = new TreeMap<>();
+        long maxHeapMb = 0;
+        for (Sample sample : samples) {
+            lines.add(String.join(",", csv(sample.scenario()), csv(sample.worker()), sample.browser(),
+                    String.valueOf(sample.contexts()), String.valueOf(sample.browserMb()), String.valueOf(sample.heapMb())));
+            byBrowser.computeIfAbsent(sample.browser(), browser -> new ArrayList<>()).add(sample);
+            maxHeapMb = Math.max(maxHeapMb, sample.heapMb());
+        }
+        try {
+            Path path = Paths.get(MEMORY_REPORT);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, lines);
+        } catch (IOException e) {
+            System.out.println("Failed to write memory report " + MEMORY_REPORT + ": " + e.getMessage());
+        }
+
+        StringBuilder report = new StringBuilder(String.format("Memory samples: %d, max heap=%d MB, written to %s",
+                samples.size(), maxHeapMb, MEMORY_REPORT));
+        byBrowser.forEach((browser, browserSamples) -> {
+            Sample first = browserSamples.get(0);
+            Sample last = browserSamples.get(browserSamples.size() - 1);
+            long max = browserSamples.stream().mapToLong(Sample::browserMb).max().orElse(0);
+            report.append(String.format("%n  browser %s: %d scenarios, first=%d MB, last=%d MB, max=%d MB",
+                    browser, browserSamples.size(), first.browserMb(), last.browserMb(), max));
+        });
+        return report.toString();
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
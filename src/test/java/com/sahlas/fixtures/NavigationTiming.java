@@ -0,0 +1,232 @@
+package com.sahlas.fixtures;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.sahlas.cucumber.plugins.LatencyHistogram;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * NavigationTiming reads the Navigation Timing and Resource Timing entries of the page's current document through
+ * the browser's Performance API, once the document has loaded. The page objects capture every document they
+ * navigate to, so steps can assert a latency budget per page, and at the end of the run the load times are
+ * summarized per user type and page in NAVIGATION_TIMING_REPORT (target/navigation-timings.json).
+ * <p>
+ * Pages are named after the path of the navigation entry, i.e. the URL the document was loaded from: inventory.html
+ * is "inventory", cart.html is "cart" and the root is "login". A route change inside the document keeps its name.
+ */
+public class NavigationTiming {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final boolean NAVIGATION_TIMING = dotenv.get("NAVIGATION_TIMING", "true").equalsIgnoreCase("true");
+    private static final String NAVIGATION_TIMING_REPORT = dotenv.get("NAVIGATION_TIMING_REPORT", "target/navigation-timings.json");
+    private static final double[] PERCENTILES = {50, 95};
+
+    // Resolves once the load event has finished, so loadEventEnd is set
+    private static final String CAPTURE_SCRIPT = """
+            () => new Promise(resolve => {
+                const read = () => {
+                    const navigation = performance.getEntriesByType('navigation')[0];
+                    const resources = performance.getEntriesByType('resource');
+                    const slowest = resources.reduce((slow, entry) => !slow || entry.duration > slow.duration ? entry : slow, null);
+                    resolve({
+                        timeOrigin: performance.timeOrigin,
+                        // The URL the document was loaded from, which an in-app route change does not alter
+                        url: navigation ? navigation.name : location.href,
+                        ttfb: navigation ? navigation.responseStart - navigation.startTime : 0,
+                        domContentLoaded: navigation ? navigation.domContentLoadedEventEnd - navigation.startTime : 0,
+                        load: navigation ? navigation.loadEventEnd - navigation.startTime : 0,
+                        resources: resources.length,
+                        transferBytes: resources.reduce((sum, entry) => sum + (entry.transferSize || 0),
+                                navigation ? navigation.transferSize || 0 : 0),
+                        slowestResource: slowest ? slowest.name : '',
+                        slowestResourceDuration: slowest ? slowest.duration : 0
+                    });
+                };
+                if (document.readyState === 'complete') {
+                    setTimeout(read, 0);
+                } else {
+                    addEventListener('load', () => setTimeout(read, 0), {once: true});
+                }
+            })
+            """;
+
+    /**
+     * The timings of one document, in ms from the start of its navigation.
+     *
+     * @param page                    The page name, e.g. inventory.
+     * @param userType                The user type of the run.
+     * @param url                     The URL the document was loaded from.
+     * @param timeOrigin              The document's performance.timeOrigin, which identifies it.
+     * @param ttfbMs                  The time to the first byte of the response.
+     * @param domContentLoadedMs      The end of the DOMContentLoaded event.
+     * @param loadMs                  The end of the load event.
+     * @param resources               The resources the document loaded.
+     * @param transferBytes           The bytes transferred for the document and its resources.
+     * @param slowestResource         The URL of the slowest resource.
+     * @param slowestResourceMs       The duration of the slowest resource.
+     */
+    public record Measurement(String page, String userType, String url, double timeOrigin, double ttfbMs,
+                              double domContentLoadedMs, double loadMs, int resources, long transferBytes,
+                              String slowestResource, double slowestResourceMs) {
+        @Override
+        public String toString() {
+            return String.format("%s page as %s: ttfb=%.0f ms, DOMContentLoaded=%.0f ms, load=%.0f ms, %d resources " +
+                            "(%d KB), slowest %s (%.0f ms)", page, userType, ttfbMs, domContentLoadedMs, loadMs,
+                    resources, transferBytes / 1024, slowestResource, slowestResourceMs);
+        }
+    }
+
+    private static final ThreadLocal<List<Measurement>> scenarioMeasurements = ThreadLocal.withInitial(ArrayList::new);
+    private static final Queue<Measurement> measurements = new ConcurrentLinkedQueue<>();
+
+    private NavigationTiming() {
+    }
+
+    /**
+     * Discards the measurements of a previous scenario on the current thread.
+     */
+    public static void startScenario() {
+        scenarioMeasurements.get().clear();
+    }
+
+    /**
+     * Captures the timings of the page's current document, waiting for it to finish loading.
+     * A document already captured in this scenario is not captured again.
+     *
+     * @param page The page that navigated.
+     * @return The measurement, or empty if timing is disabled or the document cannot be read (e.g. about:blank).
+     */
+    public static Optional<Measurement> capture(Page page) {
+        if (!NAVIGATION_TIMING) {
+            return Optional.empty();
+        }
+        Map<?, ?> entry;
+        try {
+            entry = (Map<?, ?>) page.evaluate(CAPTURE_SCRIPT);
+        } catch (PlaywrightException e) {
+            System.out.println("Failed to read navigation timing of " + page.url() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+        double timeOrigin = number(entry.get("timeOrigin"));
+        List<Measurement> captured = scenarioMeasurements.get();
+        for (Measurement measurement : captured) {
+            if (measurement.timeOrigin() == timeOrigin) {
+                return Optional.of(measurement);
+            }
+        }
+        String url = (String) entry.get("url");
+        if (!url.startsWith("http")) {
+            return Optional.empty();
+        }
+        Measurement measurement = new Measurement(pageName(url), LoginStateCache.currentUserType(), url, timeOrigin,
+                number(entry.get("ttfb")), number(entry.get("domContentLoaded")), number(entry.get("load")),
+                (int) number(entry.get("resources")), (long) number(entry.get("transferBytes")),
+                (String) entry.get("slowestResource"), number(entry.get("slowestResourceDuration")));
+        captured.add(measurement);
+        measurements.add(measurement);
+        return Optional.of(measurement);
+    }
+
+    /**
+     * Finds the latest capture of a page in the current thread's scenario.
+     *
+     * @param pageName The page name, e.g. inventory.
+     * @return The latest measurement of that page, or empty if the scenario has not loaded it.
+     */
+    public static Optional<Measurement> latest(String pageName) {
+        List<Measurement> captured = scenarioMeasurements.get();
+        for (int i = captured.size() - 1; i >= 0; i--) {
+            if (captured.get(i).page().equals(pageName)) {
+                return Optional.of(captured.get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Writes the load time percentiles per user type and page to NAVIGATION_TIMING_REPORT and summarizes them.
+     *
+     * @return The navigation timing summary as a String.
+     */
+    public static String report() {
+        if (measurements.isEmpty()) {
+            return "Navigation timings: none";
+        }
+        Map<String, Map<String, List<Measurement>>> byUserType = new TreeMap<>();
+        for (Measurement measurement : measurements) {
+            byUserType.computeIfAbsent(measurement.userType(), userType -> new TreeMap<>())
+                    .computeIfAbsent(measurement.page(), page -> new ArrayList<>())
+                    .add(measurement);
+        }
+        Map<String, Map<String, Map<String, Object>>> report = new TreeMap<>();
+        StringBuilder summary = new StringBuilder(String.format("Navigation timings: %d documents, written to %s",
+                measurements.size(), NAVIGATION_TIMING_REPORT));
+        byUserType.forEach((userType, pages) -> pages.forEach((page, pageMeasurements) -> {
+            Map<String, Object> pageSummary = summarize(pageMeasurements);
+            report.computeIfAbsent(userType, type -> new TreeMap<>()).put(page, pageSummary);
+            summary.append(String.format("%n  %s %s: %d loads, p50=%d ms, p95=%d ms, max=%d ms", userType, page,
+                    pageMeasurements.size(), pageSummary.get("loadP50Ms"), pageSummary.get("loadP95Ms"),
+                    pageSummary.get("loadMaxMs")));
+        }));
+        try {
+            Path path = Paths.get(NAVIGATION_TIMING_REPORT);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(report));
+        } catch (IOException e) {
+            System.out.println("Failed to write navigation timing report: " + e.getMessage());
+        }
+        return summary.toString();
+    }
+
+    private static Map<String, Object> summarize(List<Measurement> pageMeasurements) {
+        LatencyHistogram load = new LatencyHistogram();
+        LatencyHistogram ttfb = new LatencyHistogram();
+        pageMeasurements.forEach(measurement -> {
+            load.record(Math.round(measurement.loadMs() * 1_000));
+            ttfb.record(Math.round(measurement.ttfbMs() * 1_000));
+        });
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", load.count());
+        for (double percentile : PERCENTILES) {
+            summary.put("loadP" + (int) percentile + "Ms", load.percentileMicros(percentile) / 1_000);
+        }
+        summary.put("loadMaxMs", load.maxMicros() / 1_000);
+        for (double percentile : PERCENTILES) {
+            summary.put("ttfbP" + (int) percentile + "Ms", ttfb.percentileMicros(percentile) / 1_000);
+        }
+        summary.put("resourcesMax", pageMeasurements.stream().mapToInt(Measurement::resources).max().orElse(0));
+        return summary;
+    }
+
+    /**
+     * Names a page after the path of its URL.
+     *
+     * @param url The document URL.
+     * @return The page name, e.g. inventory for inventory.html, or login for the root.
+     */
+    static String pageName(String url) {
+        String path = url.split("[?#]")[0].replaceFirst("^[a-z]+://[^/]+", "");
+        String name = path.substring(path.lastIndexOf('/') + 1).replaceFirst("\\.html$", "");
+        return name.isEmpty() || name.equals("index") ? "login" : name;
+    }
+
+    private static double number(Object value) {
+        return value == null ? 0 : ((Number) value).doubleValue();
+    }
+}
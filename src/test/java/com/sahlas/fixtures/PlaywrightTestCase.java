@@ -6,11 +6,15 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
 
 import java.nio.file.Paths;
 
 // @Execution(ExecutionMode.CONCURRENT)
 // @UsePlaywright(PlaywrightTestCase.MyOptions.class)
+@ExtendWith(PlaywrightTestCase.FailureRecorder.class)
 public abstract class PlaywrightTestCase {
 
     static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
@@ -29,51 +33,30 @@ public abstract class PlaywrightTestCase {
                 return playwright;
             }
     );
-    protected static ThreadLocal<Browser> browser = ThreadLocal.withInitial(() -> {
-                if (DEFAULT_BROWSER.equalsIgnoreCase("firefox")) {
-                    return playwright.get().firefox().launch(
-                            new BrowserType.LaunchOptions()
-                                    .setHeadless(HEADLESS)
-                                    .setArgs(java.util.Arrays.stream(BROWSER_ARGS)
-                                            .filter(arg -> !arg.isBlank())
-                                            .toList())
-                    );
-                } else if (DEFAULT_BROWSER.equalsIgnoreCase("webkit")) {
-                    return playwright.get().webkit().launch(
-                            new BrowserType.LaunchOptions()
-                                    .setHeadless(HEADLESS)
-                                    .setArgs(java.util.Arrays.stream(BROWSER_ARGS)
-                                            .filter(arg -> !arg.isBlank())
-                                            .toList())
-                    );
-                } else if (DEFAULT_BROWSER.equalsIgnoreCase("chromium")) {
-                    return playwright.get().chromium().launch(
-                            new BrowserType.LaunchOptions()
-                                    .setHeadless(HEADLESS)
-                                    .setArgs(java.util.Arrays.stream(BROWSER_ARGS)
-                                            .filter(arg -> !arg.isBlank())
-                                            .toList())
-                    );
-                } else {
-                    return playwright.get().chromium().launch(
-                            new BrowserType.LaunchOptions()
-                                    .setHeadless(dotenv.get("HEADLESS", "false").equals("true"))
-                                    .setArgs(java.util.Arrays.stream(dotenv.get("BROWSER_ARGS", "").split(","))
-                                            .filter(arg -> !arg.isBlank())
-                                            .toList())
-                    );
-                }
-            }
-    );
+    protected static ThreadLocal<Browser> browser = ThreadLocal.withInitial(PlaywrightTestCase::launchBrowser);
     static final int TIMEOUT = Integer.parseInt(dotenv.get("TIMEOUT", "30000"));
-    static final int RETRY_COUNT = Integer.parseInt(dotenv.get("RETRY_COUNT", "3"));
-    static final int RETRY_DELAY = Integer.parseInt(dotenv.get("RETRY_DELAY", "1000"));
     static final int NAVIGATION_TIMEOUT = Integer.parseInt(dotenv.get("NAVIGATION_TIMEOUT", "30000"));
 
     protected BrowserContext browserContext;
 
     protected Page page;
 
+    // Set before the @AfterEach methods run, so the buffered screenshots of a failed test are kept
+    private boolean failed;
+
+    /**
+     * Records whether a test failed. JUnit tells TestWatchers only after the @AfterEach methods, but this callback
+     * before them.
+     */
+    static class FailureRecorder implements AfterTestExecutionCallback {
+        @Override
+        public void afterTestExecution(ExtensionContext context) {
+            if (context.getRequiredTestInstance() instanceof PlaywrightTestCase testCase) {
+                testCase.failed = context.getExecutionException().isPresent();
+            }
+        }
+    }
+
     @AfterAll
     static void tearDown() {
         browser.get().close();
@@ -83,6 +66,11 @@ public abstract class PlaywrightTestCase {
         playwright.remove();
     }
 
+    // Connects to the shared Playwright server when one is configured, otherwise launches DEFAULT_BROWSER locally
+    private static Browser launchBrowser() {
+        return BrowserLauncher.launch(playwright.get(), DEFAULT_BROWSER, HEADLESS, java.util.Arrays.asList(BROWSER_ARGS));
+    }
+
     // Helper method to convert a string to snake_case
     @SuppressWarnings("unused")
     private static String toSnakeCase(String input) {
@@ -114,6 +102,12 @@ public abstract class PlaywrightTestCase {
 
     @BeforeEach
     void setUpBrowserContext(TestInfo testInfo) {
+        ScreenshotManager.startScenario();
+        ResourceBudget.acquire();
+        if (!browser.get().isConnected()) {
+            // The browser crashed or the Playwright server connection dropped: reconnect or relaunch
+            browser.set(launchBrowser());
+        }
         browserContext = browser.get().newContext();
         browserContext.setDefaultTimeout(TIMEOUT);
         browserContext.setDefaultNavigationTimeout(
@@ -141,7 +135,17 @@ public abstract class PlaywrightTestCase {
                             .setPath(Paths.get("target/traces/trace-" + testName + ".zip"))
             );
         }
-        ScreenshotManager.takeScreenshot(page, "End of " + testInfo.getDisplayName());
-        browserContext.close();
+        try {
+            ScreenshotManager.takeScreenshot(page, "End of " + testInfo.getDisplayName());
+        } finally {
+            // Persists the test's buffered screenshots only if it failed (SCREENSHOT_POLICY=on-failure)
+            ScreenshotManager.completeScenario(failed);
+        }
+        ScreenshotManager.flush();
+        try {
+            browserContext.close();
+        } finally {
+            ResourceBudget.release();
+        }
     }
 }
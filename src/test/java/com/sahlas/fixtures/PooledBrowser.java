@@ -0,0 +1,98 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Playwright;
+
+/**
+ * PooledBrowser is a warm Playwright browser owned by the {@link BrowserPool}.
+ * Each pooled browser has its own Playwright driver, and is leased to exactly one scenario at a time,
+ * so the Playwright objects it owns are never used by two threads concurrently.
+ * The driver process is tracked so that the memory of the driver and its browser can be sampled.
+ */
+public class PooledBrowser {
+    private final int id;
+    private final Playwright playwright;
+    private final Browser browser;
+    private final ProcessHandle driver;
+    private int contextsCreated;
+
+    PooledBrowser(int id, Playwright playwright, Browser browser, ProcessHandle driver) {
+        this.id = id;
+        this.playwright = playwright;
+        this.browser = browser;
+        this.driver = driver;
+    }
+
+    /**
+     * Retrieves the pool slot this browser occupies.
+     *
+     * @return The pool slot id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the underlying Playwright browser.
+     *
+     * @return The leased Browser instance.
+     */
+    public Browser getBrowser() {
+        return browser;
+    }
+
+    /**
+     * Counts a new BrowserContext created on this browser.
+     */
+    public void contextCreated() {
+        contextsCreated++;
+    }
+
+    /**
+     * Retrieves the number of contexts created on this browser since it was launched.
+     *
+     * @return The number of contexts created.
+     */
+    public int getContextsCreated() {
+        return contextsCreated;
+    }
+
+    /**
+     * Samples the resident memory of this browser's Playwright driver and the browser processes it launched.
+     * A browser on a Playwright server only accounts for the local driver.
+     *
+     * @return The resident memory in MB; 0 if the driver process is unknown.
+     */
+    public long residentMemoryMb() {
+        return driver == null ? 0 : ResourceBudget.residentMb(driver);
+    }
+
+    /**
+     * Checks whether the browser process is still connected.
+     *
+     * @return true if the browser can still be used, false if it crashed or was closed.
+     */
+    boolean isHealthy() {
+        try {
+            return browser.isConnected();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the browser and its Playwright driver, ignoring failures from an already crashed browser.
+     */
+    void close() {
+        try {
+            browser.close();
+        } catch (RuntimeException e) {
+            System.out.println("Browser " + id + " was already closed: " + e.getMessage());
+        }
+        try {
+            playwright.close();
+        } catch (RuntimeException e) {
+            System.out.println("Playwright driver " + id + " was already closed: " + e.getMessage());
+        }
+    }
+}
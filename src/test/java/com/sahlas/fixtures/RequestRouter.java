@@ -0,0 +1,193 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Route;
+import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestRouter installs a {@link BrowserContext#route} handler on each scenario's context.
+ * Depending on ROUTING_PROFILE it serves static assets (scripts, stylesheets, images, fonts) from an
+ * in-memory LRU cache kept across contexts by each thread that runs route handlers, and blocks asset types the
+ * scenario does not need:
+ * <ul>
+ *     <li>{@code off} - requests go to the network untouched</li>
+ *     <li>{@code cache} (default) - static assets are cached, nothing is blocked</li>
+ *     <li>{@code lean} - static assets are cached, and images, fonts and media are blocked
+ *     unless the scenario is tagged {@value #NEEDS_IMAGES_TAG} or VISUAL_REGRESSION is on</li>
+ * </ul>
+ * Route handlers run on the thread that dispatches the messages of the context's Playwright connection, which is the
+ * thread currently calling into it and not necessarily the one that installed the route. The cache is therefore looked
+ * up on the handler's thread, which never shares a cache between threads.
+ * Routing disables the browser's own HTTP cache for the context, which the asset cache replaces.
+ */
+public class RequestRouter {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final Profile ROUTING_PROFILE = Profile.fromString(dotenv.get("ROUTING_PROFILE", "cache"));
+    private static final long ROUTING_CACHE_MAX_BYTES = Long.parseLong(dotenv.get("ROUTING_CACHE_MAX_BYTES", "33554432"));
+
+    /**
+     * Tag marking scenarios that check product images and must load them in the lean profile.
+     */
+    public static final String NEEDS_IMAGES_TAG = "@needs-images";
+
+    private static final Set<String> CACHEABLE_TYPES = Set.of("script", "stylesheet", "image", "font");
+    private static final Set<String> NON_ESSENTIAL_TYPES = Set.of("image", "font", "media");
+
+    /**
+     * Routing profiles selectable through ROUTING_PROFILE.
+     */
+    public enum Profile {
+        OFF, CACHE, LEAN;
+
+        static Profile fromString(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown routing profile: " + value, e);
+            }
+        }
+    }
+
+    // A response body and headers kept in the asset cache
+    private record CachedResponse(int status, Map<String, String> headers, byte[] body) {
+    }
+
+    private static final ThreadLocal<AssetCache> caches = ThreadLocal.withInitial(() -> new AssetCache(ROUTING_CACHE_MAX_BYTES));
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder blocked = new LongAdder();
+    private static final LongAdder bytesSaved = new LongAdder();
+
+    private RequestRouter() {
+    }
+
+    /**
+     * Installs the routing handler of the configured profile on a scenario's context.
+     *
+     * @param context  The BrowserContext created for the scenario.
+     * @param scenario The scenario about to start.
+     */
+    public static void install(BrowserContext context, Scenario scenario) {
+        if (ROUTING_PROFILE == Profile.OFF) {
+            return;
+        }
+        boolean blockNonEssential = blocksImages(scenario);
+        // Resolved when the handler runs, on the connection's dispatching thread rather than the installing worker
+        context.route("**/*", route -> handle(route, caches.get(), blockNonEssential));
+    }
+
+    /**
+     * Checks whether the configured profile blocks the images, fonts and media of a scenario.
+     *
+     * @param scenario The scenario about to start.
+     * @return true in the lean profile, unless the scenario is tagged {@value #NEEDS_IMAGES_TAG} or VISUAL_REGRESSION
+     * is on.
+     */
+    public static boolean blocksImages(Scenario scenario) {
+        // Screenshots compared with their baselines must show the product images
+        return ROUTING_PROFILE == Profile.LEAN
+                && !scenario.getSourceTagNames().contains(NEEDS_IMAGES_TAG)
+                && !VisualRegression.enabled();
+    }
+
+    /**
+     * Builds a one-line summary of the routing statistics.
+     *
+     * @return The cache hit rate, blocked requests and bytes saved as a String.
+     */
+    public static String report() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        double hitRate = total == 0 ? 0 : 100.0 * hitCount / total;
+        return String.format("Request routing: profile=%s, cache hits=%d, misses=%d, hit rate=%.1f%%, blocked=%d, " +
+                        "bytes saved=%d KB",
+                ROUTING_PROFILE.name().toLowerCase(), hitCount, misses.sum(), hitRate, blocked.sum(),
+                bytesSaved.sum() / 1024);
+    }
+
+    private static void handle(Route route, AssetCache cache, boolean blockNonEssential) {
+        String resourceType = route.request().resourceType();
+        if (blockNonEssential && NON_ESSENTIAL_TYPES.contains(resourceType)) {
+            blocked.increment();
+            route.abort("blockedbyclient");
+            return;
+        }
+        if (!CACHEABLE_TYPES.contains(resourceType) || !route.request().method().equals("GET")) {
+            route.resume();
+            return;
+        }
+
+        String url = route.request().url();
+        CachedResponse cached = cache.get(url);
+        if (cached != null) {
+            hits.increment();
+            bytesSaved.add(cached.body().length);
+            route.fulfill(new Route.FulfillOptions()
+                    .setStatus(cached.status())
+                    .setHeaders(cached.headers())
+                    .setBodyBytes(cached.body()));
+            return;
+        }
+
+        misses.increment();
+        APIResponse response;
+        try {
+            response = route.fetch();
+        } catch (PlaywrightException e) {
+            // Let the browser surface the network failure itself
+            route.resume();
+            return;
+        }
+        byte[] body = response.body();
+        Map<String, String> headers = response.headers();
+        if (response.status() == 200 && !headers.getOrDefault("cache-control", "").contains("no-store")) {
+            cache.put(url, new CachedResponse(response.status(), headers, body));
+        }
+        route.fulfill(new Route.FulfillOptions().setResponse(response));
+    }
+
+    /**
+     * Least-recently-used cache of responses bounded by the total size of their bodies.
+     */
+    private static class AssetCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        AssetCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        CachedResponse get(String url) {
+            return entries.get(url);
+        }
+
+        void put(String url, CachedResponse response) {
+            if (response.body().length > maxBytes) {
+                return;
+            }
+            CachedResponse previous = entries.put(url, response);
+            if (previous != null) {
+                bytes -= previous.body().length;
+            }
+            bytes += response.body().length;
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        }
+    }
+}
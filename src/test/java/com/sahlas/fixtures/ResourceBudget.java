@@ -0,0 +1,323 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ResourceBudget sizes the run to the machine it runs on.
+ * On first use it measures the available cores and memory, and the resident memory of a launched browser with one
+ * page (the footprint of one concurrent scenario), and derives the parallelism: no more workers than cores, and no
+ * more browsers than fit in the available memory minus PARALLELISM_MEMORY_RESERVE_MB.
+ * <p>
+ * During the run, {@link #acquire()} holds back a scenario while available memory is below the reserve, unless it
+ * would be the only one running, so a run that outgrows its estimate slows down instead of swapping.
+ * Memory is read from /proc on Linux, capped by the cgroup memory limit inside containers, and from the
+ * OperatingSystemMXBean elsewhere; browser footprints can only be measured on Linux, and a browser on a Playwright
+ * server is not measured at all, so BROWSER_MEMORY_ESTIMATE_MB is used in those cases.
+ */
+public class ResourceBudget {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final int PARALLELISM_MAX = Integer.parseInt(dotenv.get("PARALLELISM_MAX", "16"));
+    private static final long PARALLELISM_MEMORY_RESERVE_MB = Long.parseLong(dotenv.get("PARALLELISM_MEMORY_RESERVE_MB", "1024"));
+    private static final long BROWSER_MEMORY_ESTIMATE_MB = Long.parseLong(dotenv.get("BROWSER_MEMORY_ESTIMATE_MB", "400"));
+    private static final boolean PARALLELISM_PROBE = dotenv.get("PARALLELISM_PROBE", "true").equalsIgnoreCase("true");
+    private static final long PARALLELISM_THROTTLE_TIMEOUT = Long.parseLong(dotenv.get("PARALLELISM_THROTTLE_TIMEOUT", "60000"));
+    // Below this the probe measured a remote or unmeasurable browser, not a real footprint
+    private static final long MIN_PLAUSIBLE_FOOTPRINT_MB = 50;
+    private static final long THROTTLE_POLL_MS = 250;
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition released = lock.newCondition();
+    private static int running;
+    private static Sizing sizing;
+
+    private static final LongAdder throttled = new LongAdder();
+    private static final LongAdder throttledNanos = new LongAdder();
+    private static final AtomicLong peakBrowserResidentMb = new AtomicLong();
+    private static final AtomicLong minAvailableMb = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * The parallelism chosen for this run and the measurements it is based on.
+     *
+     * @param parallelism          The number of concurrent scenarios.
+     * @param cores                The available processors.
+     * @param availableMemoryMb    The memory available to new processes at startup.
+     * @param browserFootprintMb   The resident memory of one browser with a page.
+     * @param measured             Whether the footprint was measured rather than estimated.
+     */
+    public record Sizing(int parallelism, int cores, long availableMemoryMb, long browserFootprintMb, boolean measured) {
+        @Override
+        public String toString() {
+            return String.format("parallelism=%d (cores=%d, available memory=%d MB, reserve=%d MB, browser footprint=%d MB %s, max=%d)",
+                    parallelism, cores, availableMemoryMb, PARALLELISM_MEMORY_RESERVE_MB, browserFootprintMb,
+                    measured ? "measured" : "estimated", PARALLELISM_MAX);
+        }
+    }
+
+    private ResourceBudget() {
+    }
+
+    /**
+     * Measures the machine on first use and returns the parallelism chosen for this run.
+     *
+     * @return The sizing shared by every engine and pool of this JVM.
+     */
+    public static Sizing sizing() {
+        lock.lock();
+        try {
+            if (sizing == null) {
+                sizing = measure();
+                System.out.println("Resource-aware " + sizing);
+            }
+            return sizing;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until there is memory for one more scenario, then counts it as running.
+     * A scenario is never held back while no other scenario runs, and not for longer than
+     * PARALLELISM_THROTTLE_TIMEOUT ms.
+     */
+    public static void acquire() {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(PARALLELISM_THROTTLE_TIMEOUT);
+            boolean waited = false;
+            while (running > 0 && availableMemoryMb() < PARALLELISM_MEMORY_RESERVE_MB && System.nanoTime() < deadline) {
+                if (!waited) {
+                    waited = true;
+                    throttled.increment();
+                    System.out.printf("Low memory (%d MB available): waiting for one of %d running scenarios%n",
+                            availableMemoryMb(), running);
+                }
+                released.await(THROTTLE_POLL_MS, TimeUnit.MILLISECONDS);
+            }
+            if (waited) {
+                throttledNanos.add(System.nanoTime() - start);
+            }
+            running++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for memory", e);
+        } finally {
+            lock.unlock();
+        }
+        sample();
+    }
+
+    /**
+     * Counts a scenario started with {@link #acquire()} as finished.
+     */
+    public static void release() {
+        lock.lock();
+        try {
+            running = Math.max(0, running - 1);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Builds a one-line summary of the chosen parallelism and the memory observed during the run.
+     *
+     * @return The resource report as a String.
+     */
+    public static String report() {
+        long lowest = minAvailableMb.get();
+        return String.format("Resource budget: %s, lowest available memory=%s MB, peak browser memory=%d MB, "
+                        + "throttled scenarios=%d (%.1f s)",
+                sizing == null ? "not sized" : sizing, lowest == Long.MAX_VALUE ? "n/a" : String.valueOf(lowest),
+                peakBrowserResidentMb.get(), throttled.sum(), throttledNanos.sum() / 1e9);
+    }
+
+    /**
+     * Reads the memory available to new processes: MemAvailable in /proc/meminfo when present, capped by the room
+     * left under the memory limit of this JVM's cgroup and its ancestors (cgroup v2 or v1), since a container sees
+     * the host's /proc/meminfo.
+     *
+     * @return The available memory in MB.
+     */
+    public static long availableMemoryMb() {
+        return Math.min(hostAvailableMemoryMb(), cgroupAvailableMemoryMb());
+    }
+
+    private static long hostAvailableMemoryMb() {
+        Path meminfo = Paths.get("/proc/meminfo");
+        if (Files.isReadable(meminfo)) {
+            try (var lines = Files.lines(meminfo)) {
+                return lines.filter(line -> line.startsWith("MemAvailable:"))
+                        .findFirst()
+                        .map(line -> kilobytes(line) / 1024)
+                        .orElseGet(ResourceBudget::freeMemoryMb);
+            } catch (IOException e) {
+                return freeMemoryMb();
+            }
+        }
+        return freeMemoryMb();
+    }
+
+    /**
+     * Sums the resident memory of every process started by this JVM: Playwright drivers and their browsers.
+     *
+     * @return The resident memory in MB; 0 where it cannot be read.
+     */
+    public static long browserResidentMb() {
+        return ProcessHandle.current().descendants()
+                .mapToLong(process -> residentKb(process.pid()))
+                .sum() / 1024;
+    }
+
+    /**
+     * Sums the resident memory of a process and all its descendants, e.g. a Playwright driver and its browser.
+     *
+     * @param root The root process.
+     * @return The resident memory in MB; 0 where it cannot be read or the process has exited.
+     */
+    public static long residentMb(ProcessHandle root) {
+        return (residentKb(root.pid()) + root.descendants()
+                .mapToLong(process -> residentKb(process.pid()))
+                .sum()) / 1024;
+    }
+
+    private static Sizing measure() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long available = availableMemoryMb();
+        long footprint = PARALLELISM_PROBE ? probeFootprintMb() : 0;
+        boolean measured = footprint >= MIN_PLAUSIBLE_FOOTPRINT_MB;
+        if (!measured) {
+            footprint = BROWSER_MEMORY_ESTIMATE_MB;
+        }
+        long byMemory = Math.max(0, available - PARALLELISM_MEMORY_RESERVE_MB) / footprint;
+        int parallelism = (int) Math.max(1, Math.min(Math.min(cores, byMemory), PARALLELISM_MAX));
+        return new Sizing(parallelism, cores, available, footprint, measured);
+    }
+
+    // Launches the same browser as the BrowserPool with one page, and measures what it added to this JVM's children
+    private static long probeFootprintMb() {
+        long before = browserResidentMb();
+        try (Playwright playwright = Playwright.create()) {
+            Browser browser = BrowserLauncher.launch(playwright, "chromium", true,
+                    Arrays.asList("--no-sandbox", "--disable-extensions", "--disable-gpu"));
+            Page page = browser.newContext().newPage();
+            page.setContent("<html><body>probe</body></html>");
+            long footprint = browserResidentMb() - before;
+            browser.close();
+            return footprint;
+        } catch (RuntimeException e) {
+            System.out.println("Failed to measure the browser footprint: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void sample() {
+        minAvailableMb.accumulateAndGet(availableMemoryMb(), Math::min);
+        peakBrowserResidentMb.accumulateAndGet(browserResidentMb(), Math::max);
+    }
+
+    // Long.MAX_VALUE when no cgroup limits the memory of this JVM
+    private static long cgroupAvailableMemoryMb() {
+        Path v2 = cgroupDirectory(Paths.get("/sys/fs/cgroup"), "");
+        if (v2 != null && Files.isReadable(v2.resolve("memory.max"))) {
+            return cgroupAvailableMemoryMb(v2, Paths.get("/sys/fs/cgroup"),
+                    "memory.max", "memory.current", "inactive_file");
+        }
+        Path v1 = cgroupDirectory(Paths.get("/sys/fs/cgroup/memory"), "memory");
+        if (v1 != null) {
+            return cgroupAvailableMemoryMb(v1, Paths.get("/sys/fs/cgroup/memory"),
+                    "memory.limit_in_bytes", "memory.usage_in_bytes", "total_inactive_file");
+        }
+        return Long.MAX_VALUE;
+    }
+
+    // The tightest limit minus usage from the cgroup up to the mount; inactive page cache does not count as used,
+    // since the kernel reclaims it before the limit is hit
+    private static long cgroupAvailableMemoryMb(Path cgroup, Path mount, String limitFile, String usageFile,
+                                                String inactiveFileKey) {
+        long available = Long.MAX_VALUE;
+        for (Path directory = cgroup; directory != null && directory.startsWith(mount); directory = directory.getParent()) {
+            try {
+                String limit = Files.readString(directory.resolve(limitFile)).trim();
+                if (limit.equals("max")) {
+                    continue;
+                }
+                long usage = Long.parseLong(Files.readString(directory.resolve(usageFile)).trim());
+                long inactive = Files.readAllLines(directory.resolve("memory.stat")).stream()
+                        .filter(line -> line.startsWith(inactiveFileKey + " "))
+                        .findFirst()
+                        .map(line -> Long.parseLong(line.substring(inactiveFileKey.length() + 1).trim()))
+                        .orElse(0L);
+                long free = Long.parseLong(limit) - Math.max(0, usage - inactive);
+                available = Math.min(available, Math.max(0, free) / (1024 * 1024));
+            } catch (IOException | RuntimeException e) {
+                // The root cgroup has no limit files, and an unreadable level limits nothing we can see
+            }
+        }
+        return available;
+    }
+
+    // The directory of this JVM's cgroup under a cgroup mount, from /proc/self/cgroup ("0::/path" on v2,
+    // "4:memory:/path" on v1); the mount itself in a container whose cgroup namespace hides the path
+    private static Path cgroupDirectory(Path mount, String controller) {
+        if (!Files.isDirectory(mount)) {
+            return null;
+        }
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/cgroup"))) {
+                String[] fields = line.split(":", 3);
+                if (fields.length == 3 && Arrays.asList(fields[1].split(",")).contains(controller)) {
+                    Path directory = mount.resolve(fields[2].replaceFirst("^/", ""));
+                    return Files.isDirectory(directory) ? directory : mount;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static long residentKb(long pid) {
+        try {
+            List<String> status = Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"));
+            return status.stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .findFirst()
+                    .map(ResourceBudget::kilobytes)
+                    .orElse(0L);
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or the process exited while being read
+            return 0;
+        }
+    }
+
+    private static long kilobytes(String line) {
+        return Long.parseLong(line.replaceAll("[^0-9]", ""));
+    }
+
+    private static long freeMemoryMb() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getFreeMemorySize() / (1024 * 1024);
+        }
+        return Runtime.getRuntime().maxMemory() / (1024 * 1024);
+    }
+}
@@ -0,0 +1,124 @@
+package com.sahlas.fixtures;
+
+import com.sahlas.cucumber.sharding.ScenarioHistory;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.StatusDetails;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ScenarioRetryFixtures tracks the attempts of scenarios that the failsafe plugin reruns in the same JVM
+ * ({@code rerunFailingTestsCount}, set from the {@code retry.count} Maven property and passed on as the RETRY_COUNT
+ * system property). Other launchers, such as an IDE, do not rerun, so without that property the retry budget is 0 and
+ * a failed scenario is a hard failure. A rerun waits RETRY_DELAY ms and then starts like any scenario, in a new BrowserContext on a warm pooled browser.
+ * <p>
+ * In Allure, a scenario that passes on a rerun is marked flaky, and one that fails its last attempt is tagged
+ * hard-fail; the earlier attempts appear as its retries. The trace of every failed attempt is kept.
+ */
+public class ScenarioRetryFixtures {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final int RETRY_COUNT = Integer.parseInt(System.getProperty("RETRY_COUNT", "0"));
+    private static final long RETRY_DELAY = Long.parseLong(dotenv.get("RETRY_DELAY", "1000"));
+
+    private static final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    // Failed scenarios that still have a rerun left in this JVM
+    private static final Set<String> pendingReruns = ConcurrentHashMap.newKeySet();
+    private static final LongAdder flaky = new LongAdder();
+    private static final LongAdder hardFailed = new LongAdder();
+
+    /**
+     * Retrieves which attempt of the scenario is running.
+     *
+     * @param scenario The running scenario.
+     * @return 1 for the first run, 2 for the first rerun, and so on.
+     */
+    public static int attempt(Scenario scenario) {
+        return attempts.getOrDefault(key(scenario), 1);
+    }
+
+    /**
+     * Checks whether any failed scenario of this run will be rerun, so that the browsers should be kept warm.
+     *
+     * @return true if a rerun is pending.
+     */
+    public static boolean rerunPending() {
+        return !pendingReruns.isEmpty();
+    }
+
+    /**
+     * Builds a one-line summary of the reruns so far.
+     *
+     * @return The retry statistics as a String.
+     */
+    public static String report() {
+        return String.format("Scenario retries: budget=%d, flaky=%d, hard failures=%d, pending reruns=%d",
+                RETRY_COUNT, flaky.sum(), hardFailed.sum(), pendingReruns.size());
+    }
+
+    /**
+     * Counts the attempt and, for a rerun, waits RETRY_DELAY ms before the scenario's context is created.
+     * This method runs before the fixtures (order = 50).
+     *
+     * @param scenario The scenario about to start.
+     */
+    @Before(order = 50)
+    public void countAttempt(Scenario scenario) {
+        int attempt = attempts.merge(key(scenario), 1, Integer::sum);
+        if (attempt == 1) {
+            return;
+        }
+        System.out.printf("Rerunning scenario %s (attempt %d of %d)%n", scenario.getName(), attempt, RETRY_COUNT + 1);
+        try {
+            Thread.sleep(RETRY_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to rerun " + scenario.getName(), e);
+        }
+    }
+
+    /**
+     * Labels the scenario's Allure result with the outcome of its attempt.
+     *
+     * @param scenario The scenario that just finished.
+     */
+    @After
+    public void labelAttempt(Scenario scenario) {
+        String key = key(scenario);
+        int attempt = attempt(scenario);
+        if (scenario.isFailed()) {
+            if (attempt <= RETRY_COUNT) {
+                pendingReruns.add(key);
+                Allure.label("tag", "retried");
+            } else {
+                pendingReruns.remove(key);
+                hardFailed.increment();
+                Allure.label("tag", "hard-fail");
+            }
+            return;
+        }
+        pendingReruns.remove(key);
+        if (attempt > 1) {
+            flaky.increment();
+            System.out.printf("Scenario %s passed on attempt %d: flaky%n", scenario.getName(), attempt);
+            Allure.label("tag", "flaky");
+            Allure.getLifecycle().updateTestCase(result -> {
+                StatusDetails details = result.getStatusDetails() == null ? new StatusDetails() : result.getStatusDetails();
+                result.setStatusDetails(details.setFlaky(true)
+                        .setMessage("Passed on attempt " + attempt + " of " + (RETRY_COUNT + 1)));
+            });
+        }
+    }
+
+    private static String key(Scenario scenario) {
+        return ScenarioHistory.key(scenario.getUri().toString(), scenario.getLine());
+    }
+}
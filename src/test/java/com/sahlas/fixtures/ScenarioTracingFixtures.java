@@ -7,31 +7,82 @@ import com.sahlas.cucumber.stepdefinitions.PlaywrightCucumberFixtures;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
 
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * ScenarioTracingFixtures records a Playwright trace of each scenario into a tracing chunk.
+ * TRACE_MODE selects which chunks are written to target/traces:
+ * {@code always}, {@code on-failure} (default; the chunk of a passing scenario is discarded without being
+ * serialized or compressed) or {@code off}.
+ * TRACE_CAPTURE lists what the trace captures, any of {@code snapshots}, {@code screenshots} and {@code sources}.
+ */
 public class ScenarioTracingFixtures {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String TRACE_MODE = dotenv.get("TRACE_MODE", "on-failure").trim().toLowerCase();
+    private static final Set<String> TRACE_CAPTURE = Arrays.stream(dotenv.get("TRACE_CAPTURE", "snapshots,screenshots").split(","))
+            .map(capture -> capture.trim().toLowerCase())
+            .filter(capture -> !capture.isEmpty())
+            .collect(Collectors.toSet());
 
+    static {
+        if (!Set.of("always", "on-failure", "off").contains(TRACE_MODE)) {
+            throw new IllegalArgumentException("Unknown TRACE_MODE: " + TRACE_MODE);
+        }
+    }
+
+    /**
+     * Builds the options every scenario's trace is started with, from TRACE_CAPTURE.
+     *
+     * @return The trace start options.
+     */
+    public static Tracing.StartOptions startOptions() {
+        return new Tracing.StartOptions()
+                .setScreenshots(TRACE_CAPTURE.contains("screenshots"))
+                .setSnapshots(TRACE_CAPTURE.contains("snapshots"))
+                .setSources(TRACE_CAPTURE.contains("sources"));
+    }
 
     @Before
-    public void setupTracing() {
-        PlaywrightCucumberFixtures.getBrowserContext().tracing().start(
-                new Tracing.StartOptions()
-                        .setScreenshots(true)
-                        .setSnapshots(true)
-                        .setSources(true)
-        );
+    public void setupTracing(Scenario scenario) {
+        if (TRACE_MODE.equals("off")) {
+            return;
+        }
+        Tracing tracing = PlaywrightCucumberFixtures.getBrowserContext().tracing();
+        tracing.start(startOptions());
+        tracing.startChunk(new Tracing.StartChunkOptions().setTitle(scenario.getName()));
     }
 
     @After
     //  npx playwright show-trace ./target/traces/trace-:-the-one-where-sally-logs-in-to-the-catalog.zip
     public void recordTraces(Scenario scenario) {
+        if (TRACE_MODE.equals("off")) {
+            return;
+        }
         BrowserContext context = PlaywrightCucumberFixtures.getBrowserContext();
-        String traceName = scenario.getName().replace(" ", "-").toLowerCase();
-        context.tracing().stop(
-                new Tracing.StopOptions()
-                        .setPath(Paths.get("target/traces/trace-" + traceName + ".zip"))
-        );
+        Tracing tracing = context.tracing();
+        if (TRACE_MODE.equals("always") || scenario.isFailed()) {
+            String traceName = scenario.getName().replace(" ", "-").toLowerCase();
+            int attempt = ScenarioRetryFixtures.attempt(scenario);
+            if (attempt > 1) {
+                // Keep the trace of every failed attempt of a rerun scenario
+                traceName += "-attempt-" + attempt;
+            }
+            tracing.stopChunk(
+                    new Tracing.StopChunkOptions()
+                            .setPath(Paths.get("target/traces/trace-" + traceName + ".zip"))
+            );
+        } else {
+            // Without a path the chunk is dropped by the driver, skipping serialization and zip compression
+            tracing.stopChunk();
+        }
+        tracing.stop();
     }
 
-}
\ No newline at end of file
+}
@@ -2,19 +2,248 @@ package com.sahlas.fixtures;
 
 
 import com.microsoft.playwright.Page;
+import io.github.cdimascio.dotenv.Dotenv;
 import io.qameta.allure.Allure;
 
-import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * ScreenshotManager captures full-page screenshots and persists them to target/screenshots and Allure.
+ * Only the capture happens on the calling thread: the Allure attachment is registered with the current step
+ * immediately, and the file write and attachment content are handed to a bounded background writer.
+ * Identical screenshots are stored once by the {@link AttachmentStore} and linked from each result, and with
+ * VISUAL_REGRESSION enabled the writer also compares them with their baselines (see {@link VisualRegression}).
+ * When the writer is saturated, screenshots are either written inline on the caller or dropped,
+ * depending on SCREENSHOT_QUEUE_FULL_POLICY.
+ * <p>
+ * SCREENSHOT_POLICY selects which screenshots are kept: {@code always}, {@code on-failure} (the last
+ * SCREENSHOT_BUFFER_SIZE frames of a scenario are held in memory and persisted only if it fails),
+ * {@code sampled} (a SCREENSHOT_SAMPLE_RATE fraction of screenshots is taken) or {@code off}.
+ */
 public class ScreenshotManager {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final int SCREENSHOT_WRITER_THREADS = Integer.parseInt(dotenv.get("SCREENSHOT_WRITER_THREADS", "2"));
+    private static final int SCREENSHOT_QUEUE_CAPACITY = Integer.parseInt(dotenv.get("SCREENSHOT_QUEUE_CAPACITY", "32"));
+    private static final boolean DROP_WHEN_FULL = dotenv.get("SCREENSHOT_QUEUE_FULL_POLICY", "inline").equalsIgnoreCase("drop");
+    // Configured by SCREENSHOT_POLICY; harnesses such as the load generator override it with setPolicy
+    private static volatile Policy policy = Policy.fromString(dotenv.get("SCREENSHOT_POLICY", "always"));
+    private static final int SCREENSHOT_BUFFER_SIZE = Integer.parseInt(dotenv.get("SCREENSHOT_BUFFER_SIZE", "10"));
+    private static final double SCREENSHOT_SAMPLE_RATE = Double.parseDouble(dotenv.get("SCREENSHOT_SAMPLE_RATE", "0.2"));
+
+    /**
+     * Screenshot retention policies selectable through SCREENSHOT_POLICY.
+     */
+    public enum Policy {
+        ALWAYS, ON_FAILURE, SAMPLED, OFF;
+
+        static Policy fromString(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown screenshot policy: " + value, e);
+            }
+        }
+    }
+
+    // A screenshot held in the per-scenario ring buffer until the scenario's outcome is known
+    private record Frame(String name, byte[] screenshot) {
+    }
+
+    private static final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // Bounds the screenshots queued or being written, so pending PNG bytes cannot grow without limit
+    private static final Semaphore capacity = new Semaphore(SCREENSHOT_QUEUE_CAPACITY);
+    private static final AtomicInteger writerThreadCount = new AtomicInteger();
+    private static final ExecutorService writer = Executors.newFixedThreadPool(SCREENSHOT_WRITER_THREADS, task -> {
+        Thread thread = new Thread(task, "screenshot-writer-" + writerThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadLocal<List<Future<?>>> pending = ThreadLocal.withInitial(ArrayList::new);
+
+    private static final AtomicInteger queueDepth = new AtomicInteger();
+    private static final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private static final LongAdder written = new LongAdder();
+    private static final LongAdder writtenInline = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder totalWriteNanos = new LongAdder();
+    private static final AtomicLong maxWriteNanos = new AtomicLong();
+
+    /**
+     * Overrides SCREENSHOT_POLICY for the rest of the run.
+     *
+     * @param screenshotPolicy The policy applied to every screenshot taken from now on.
+     */
+    public static void setPolicy(Policy screenshotPolicy) {
+        policy = screenshotPolicy;
+    }
+
     public static void takeScreenshot(Page page, String name) {
-        var screenshot = page.screenshot(
-                new Page.ScreenshotOptions()
-                        .setPath(Paths.get("target/screenshots/" + name + ".png"))
-                        .setFullPage(true)
-        );
+        Policy screenshotPolicy = policy;
+        if (screenshotPolicy == Policy.OFF) {
+            return;
+        }
+        if (screenshotPolicy == Policy.SAMPLED && ThreadLocalRandom.current().nextDouble() >= SCREENSHOT_SAMPLE_RATE) {
+            return;
+        }
+        Page.ScreenshotOptions options = new Page.ScreenshotOptions()
+                .setFullPage(true);
+        if (VisualRegression.enabled()) {
+            options.setMask(VisualRegression.masks(page));
+        }
+        var screenshot = page.screenshot(options);
+
+        if (screenshotPolicy == Policy.ON_FAILURE) {
+            Deque<Frame> buffer = frames.get();
+            if (buffer.size() == SCREENSHOT_BUFFER_SIZE) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(new Frame(name, screenshot));
+            return;
+        }
+        submit(name, screenshot);
+    }
+
+    /**
+     * Discards any frames buffered by a previous scenario on the current thread.
+     */
+    public static void startScenario() {
+        frames.get().clear();
+    }
+
+    /**
+     * Ends the current thread's scenario. In on-failure mode the buffered frames are persisted
+     * if the scenario failed and discarded otherwise; other policies have already persisted their screenshots.
+     *
+     * @param failed true if the scenario failed.
+     */
+    public static void completeScenario(boolean failed) {
+        Deque<Frame> buffer = frames.get();
+        if (failed && !buffer.isEmpty()) {
+            System.out.println("Scenario failed, persisting the last " + buffer.size() + " screenshots");
+            buffer.forEach(frame -> submit(frame.name(), frame.screenshot()));
+        }
+        buffer.clear();
+    }
+
+    private static void submit(String name, byte[] screenshot) {
+        if (!capacity.tryAcquire()) {
+            if (DROP_WHEN_FULL) {
+                dropped.increment();
+                System.out.println("Screenshot queue is full, dropping screenshot: " + name);
+                return;
+            }
+            // Degrade to writing on the caller, which slows the scenario down instead of growing the queue
+            writtenInline.increment();
+            persist(name, prepareAttachment(name), screenshot, VisualRegression.prepare(name));
+            return;
+        }
+
+        String source = prepareAttachment(name);
+        VisualRegression.Check check = VisualRegression.prepare(name);
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+        try {
+            pending.get().add(writer.submit(() -> {
+                try {
+                    persist(name, source, screenshot, check);
+                } finally {
+                    queueDepth.decrementAndGet();
+                    capacity.release();
+                }
+            }));
+        } catch (RuntimeException e) {
+            queueDepth.decrementAndGet();
+            capacity.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until every screenshot taken on the current thread has been written.
+     * Called at the end of each scenario so its screenshots are complete before the next one starts.
+     */
+    public static void flush() {
+        List<Future<?>> futures = pending.get();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                System.out.println("Failed to write screenshot: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        futures.clear();
+    }
+
+    /**
+     * Stops the background writer after the queued screenshots are written, and prints the pipeline metrics.
+     */
+    public static void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("Screenshot writer did not finish within 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(report());
+        System.out.println(AttachmentStore.report());
+        System.out.println(VisualRegression.report());
+    }
+
+    /**
+     * Builds a one-line summary of the screenshot pipeline metrics.
+     *
+     * @return The queue depth and write time metrics as a String.
+     */
+    public static String report() {
+        long count = written.sum();
+        double averageMs = count == 0 ? 0 : totalWriteNanos.sum() / (double) count / 1_000_000;
+        return String.format("Screenshots: written=%d (inline=%d), dropped=%d, queue depth=%d (max %d of %d), " +
+                        "average write=%.1f ms, max write=%.1f ms",
+                count, writtenInline.sum(), dropped.sum(), queueDepth.get(), maxQueueDepth.get(),
+                SCREENSHOT_QUEUE_CAPACITY, averageMs, maxWriteNanos.get() / 1_000_000.0);
+    }
+
+    // Registers the attachment with the step running on the calling thread; its content is written later
+    private static String prepareAttachment(String name) {
+        return Allure.getLifecycle().prepareAttachment(name, "image/png", "png");
+    }
+
+    private static void persist(String name, String source, byte[] screenshot, VisualRegression.Check check) {
+        long start = System.nanoTime();
+        try {
+            AttachmentStore.write(screenshot, "png", Paths.get("target/screenshots/" + name + ".png"), source);
+        } catch (UncheckedIOException e) {
+            System.out.println("Failed to write screenshot " + name + ": " + e.getMessage());
+        }
+        if (check != null) {
+            check.compare(screenshot);
+        }
 
-        Allure.addAttachment(name, new ByteArrayInputStream(screenshot));
+        long elapsed = System.nanoTime() - start;
+        written.increment();
+        totalWriteNanos.add(elapsed);
+        maxWriteNanos.accumulateAndGet(elapsed, Math::max);
     }
 }
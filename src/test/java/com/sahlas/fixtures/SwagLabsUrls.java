@@ -0,0 +1,51 @@
+package com.sahlas.fixtures;
+
+import com.sahlas.standin.StandInServer;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.net.URI;
+
+/**
+ * SwagLabsUrls resolves the page URLs of the application under test.
+ * SWAG_LABS_TARGET (system property or environment) selects the target: {@code saucedemo} (default) uses the
+ * configured URLs as they are, {@code standin} serves the same paths from the embedded {@link StandInServer}
+ * so scenarios run without network access.
+ */
+public class SwagLabsUrls {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String SAUCEDEMO_URL = "https://www.saucedemo.com/";
+
+    private SwagLabsUrls() {
+    }
+
+    /**
+     * Checks whether scenarios run against the embedded stand-in.
+     *
+     * @return true if SWAG_LABS_TARGET is standin.
+     */
+    public static boolean isStandIn() {
+        String target = System.getProperty("SWAG_LABS_TARGET", dotenv.get("SWAG_LABS_TARGET", "saucedemo"));
+        if (!target.equalsIgnoreCase("standin") && !target.equalsIgnoreCase("saucedemo")) {
+            throw new IllegalArgumentException("Unknown SWAG_LABS_TARGET: " + target);
+        }
+        return target.equalsIgnoreCase("standin");
+    }
+
+    /**
+     * Resolves a page URL from its configuration key.
+     *
+     * @param key  The configuration key of the URL, e.g. PRODUCT_LIST_PAGE_URL.
+     * @param path The path below https://www.saucedemo.com/ used when the key is not configured.
+     * @return The configured URL, rebased on the stand-in when SWAG_LABS_TARGET is standin.
+     */
+    public static String url(String key, String path) {
+        String configured = dotenv.get(key, SAUCEDEMO_URL + path);
+        if (!isStandIn()) {
+            return configured;
+        }
+        String configuredPath = URI.create(configured).getRawPath();
+        return StandInServer.shared().baseUrl() + configuredPath.replaceFirst("^/", "");
+    }
+}
@@ -0,0 +1,238 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import io.cucumber.java.Scenario;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.qameta.allure.Allure;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VisualRegression compares every screenshot persisted by the {@link ScreenshotManager} with its baseline, using the
+ * tiled {@link ImageDiff}. The comparison runs on the screenshot writer, off the scenario thread; at the end of the
+ * scenario the mismatches are attached to Allure with their diff images and, with VISUAL_REGRESSION=assert, fail it.
+ * <p>
+ * Baselines live in VISUAL_BASELINES, one per scenario and screenshot name, and are recorded from the runs of
+ * VISUAL_BASELINE_USER (standard_user), so running as visual_user shows its rendering defects as differences.
+ * A missing baseline is recorded by a run of that user, and VISUAL_BASELINE_UPDATE=true records them all again.
+ * Dynamic regions are masked at capture time (VISUAL_MASK_SELECTORS, CSS selectors painted over by Playwright) or in
+ * the comparison (VISUAL_MASK_REGIONS, {@code x,y,width,height} rectangles separated by semicolons).
+ */
+public class VisualRegression {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final String VISUAL_REGRESSION = dotenv.get("VISUAL_REGRESSION", "off").toLowerCase();
+    private static final Path VISUAL_BASELINES = Paths.get(dotenv.get("VISUAL_BASELINES", "src/test/visual-baselines"));
+    private static final String VISUAL_BASELINE_USER = dotenv.get("VISUAL_BASELINE_USER", "standard_user");
+    private static final boolean VISUAL_BASELINE_UPDATE = dotenv.get("VISUAL_BASELINE_UPDATE", "false").equalsIgnoreCase("true");
+    private static final double VISUAL_DIFF_THRESHOLD = Double.parseDouble(dotenv.get("VISUAL_DIFF_THRESHOLD", "0.1"));
+    private static final double VISUAL_MAX_DIFF_RATIO = Double.parseDouble(dotenv.get("VISUAL_MAX_DIFF_RATIO", "0.001"));
+    private static final int VISUAL_DIFF_TILE_SIZE = Integer.parseInt(dotenv.get("VISUAL_DIFF_TILE_SIZE", "128"));
+    private static final int VISUAL_DIFF_THREADS = Integer.parseInt(dotenv.get("VISUAL_DIFF_THREADS",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final List<String> VISUAL_MASK_SELECTORS = split(dotenv.get("VISUAL_MASK_SELECTORS", ""), ",");
+    private static final List<Rectangle> VISUAL_MASK_REGIONS = split(dotenv.get("VISUAL_MASK_REGIONS", ""), ";").stream()
+            .map(VisualRegression::region)
+            .toList();
+    private static final String VISUAL_DIFFS = "target/visual-diffs";
+
+    private static final ImageDiff imageDiff = new ImageDiff(VISUAL_DIFF_TILE_SIZE, VISUAL_DIFF_THRESHOLD,
+            new ForkJoinPool(VISUAL_DIFF_THREADS));
+
+    /**
+     * A screenshot that differs from its baseline by more than VISUAL_MAX_DIFF_RATIO.
+     *
+     * @param name    The screenshot name.
+     * @param result  The comparison result.
+     * @param diffPng The diff image as PNG bytes.
+     */
+    public record Mismatch(String name, ImageDiff.Result result, byte[] diffPng) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d pixels (%.3f%%) in %d tiles differ", name, result.differentPixels(),
+                    result.ratio() * 100, result.differentTiles());
+        }
+    }
+
+    /**
+     * The baseline comparison of one screenshot, prepared on the scenario thread and run on the screenshot writer.
+     */
+    public static final class Check {
+        private final Path baseline;
+        private final String name;
+        private final Queue<Mismatch> mismatches;
+
+        private Check(Path baseline, String name, Queue<Mismatch> mismatches) {
+            this.baseline = baseline;
+            this.name = name;
+            this.mismatches = mismatches;
+        }
+
+        /**
+         * Compares the screenshot with its baseline, or records it as the baseline.
+         *
+         * @param screenshot The screenshot PNG bytes.
+         */
+        public void compare(byte[] screenshot) {
+            long start = System.nanoTime();
+            try {
+                boolean recording = LoginStateCache.currentUserType().equals(VISUAL_BASELINE_USER);
+                if (recording && (VISUAL_BASELINE_UPDATE || !Files.exists(baseline))) {
+                    Files.createDirectories(baseline.getParent());
+                    Files.write(baseline, screenshot);
+                    recorded.increment();
+                    return;
+                }
+                if (!Files.exists(baseline)) {
+                    missing.increment();
+                    return;
+                }
+                ImageDiff.Result result = imageDiff.compare(Files.readAllBytes(baseline), screenshot, VISUAL_MASK_REGIONS);
+                compared.increment();
+                if (result.ratio() > VISUAL_MAX_DIFF_RATIO) {
+                    mismatches.add(new Mismatch(name, result, result.diffPng()));
+                }
+            } catch (IOException | UncheckedIOException | IllegalStateException e) {
+                System.out.println("Failed to compare screenshot " + name + " with its baseline: " + e.getMessage());
+            } finally {
+                compareNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static final ThreadLocal<String> scenarioKey = new ThreadLocal<>();
+    private static final ThreadLocal<Queue<Mismatch>> scenarioMismatches = ThreadLocal.withInitial(ConcurrentLinkedQueue::new);
+    private static final LongAdder compared = new LongAdder();
+    private static final LongAdder recorded = new LongAdder();
+    private static final LongAdder missing = new LongAdder();
+    private static final LongAdder mismatched = new LongAdder();
+    private static final LongAdder compareNanos = new LongAdder();
+
+    private VisualRegression() {
+    }
+
+    /**
+     * Checks whether screenshots are compared with their baselines.
+     *
+     * @return true unless VISUAL_REGRESSION is off.
+     */
+    public static boolean enabled() {
+        return switch (VISUAL_REGRESSION) {
+            case "off" -> false;
+            case "report", "assert" -> true;
+            default -> throw new IllegalArgumentException("Unknown VISUAL_REGRESSION " + VISUAL_REGRESSION
+                    + ": expected off, report or assert");
+        };
+    }
+
+    /**
+     * Builds the locators of the dynamic regions Playwright paints over in every screenshot.
+     *
+     * @param page The page being captured.
+     * @return The locators of VISUAL_MASK_SELECTORS.
+     */
+    public static List<Locator> masks(Page page) {
+        return VISUAL_MASK_SELECTORS.stream().map(page::locator).toList();
+    }
+
+    /**
+     * Starts collecting the mismatches of a scenario on the current thread.
+     *
+     * @param scenario The scenario about to start.
+     */
+    public static void startScenario(Scenario scenario) {
+        scenarioKey.set(slug(scenario.getName()) + "-" + scenario.getLine());
+        scenarioMismatches.get().clear();
+    }
+
+    /**
+     * Prepares the baseline comparison of a screenshot of the current thread's scenario.
+     *
+     * @param name The screenshot name.
+     * @return The check to run once the screenshot is written, or null when nothing is compared.
+     */
+    public static Check prepare(String name) {
+        if (!enabled() || scenarioKey.get() == null) {
+            return null;
+        }
+        return new Check(VISUAL_BASELINES.resolve(scenarioKey.get()).resolve(slug(name) + ".png"), name,
+                scenarioMismatches.get());
+    }
+
+    /**
+     * Attaches the scenario's mismatches to Allure and writes their diff images to target/visual-diffs.
+     * Must be called after the scenario's screenshots have been written (see {@link ScreenshotManager#flush()}).
+     *
+     * @throws AssertionError if a screenshot differs from its baseline and VISUAL_REGRESSION is assert.
+     */
+    public static void completeScenario() {
+        List<Mismatch> mismatches = new ArrayList<>(scenarioMismatches.get());
+        String key = scenarioKey.get();
+        scenarioMismatches.get().clear();
+        scenarioKey.remove();
+        if (mismatches.isEmpty()) {
+            return;
+        }
+        mismatched.add(mismatches.size());
+        for (Mismatch mismatch : mismatches) {
+            System.out.println("Visual difference in " + mismatch);
+            Allure.addAttachment("Visual diff: " + mismatch.name(), "image/png",
+                    new ByteArrayInputStream(mismatch.diffPng()), "png");
+            try {
+                Path path = Paths.get(VISUAL_DIFFS, key, slug(mismatch.name()) + ".png");
+                Files.createDirectories(path.getParent());
+                Files.write(path, mismatch.diffPng());
+            } catch (IOException e) {
+                System.out.println("Failed to write visual diff " + mismatch.name() + ": " + e.getMessage());
+            }
+        }
+        if (VISUAL_REGRESSION.equals("assert")) {
+            throw new AssertionError("Screenshots differ from their baselines: " + mismatches);
+        }
+    }
+
+    /**
+     * Builds a one-line summary of the baseline comparisons.
+     *
+     * @return The comparison statistics as a String.
+     */
+    public static String report() {
+        long count = compared.sum() + recorded.sum() + missing.sum();
+        return String.format("Visual regression (%s): compared=%d, mismatched=%d, recorded=%d, no baseline=%d, " +
+                        "average check=%.1f ms", VISUAL_REGRESSION, compared.sum(), mismatched.sum(), recorded.sum(),
+                missing.sum(), count == 0 ? 0 : compareNanos.sum() / (double) count / 1_000_000);
+    }
+
+    private static String slug(String name) {
+        String slug = name.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        return slug.isEmpty() ? "screenshot" : slug;
+    }
+
+    private static List<String> split(String value, String separator) {
+        return Arrays.stream(value.split(separator)).map(String::trim).filter(part -> !part.isEmpty()).toList();
+    }
+
+    private static Rectangle region(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid VISUAL_MASK_REGIONS entry " + value + ": expected x,y,width,height");
+        }
+        int[] numbers = Arrays.stream(parts).mapToInt(part -> Integer.parseInt(part.trim())).toArray();
+        return new Rectangle(numbers[0], numbers[1], numbers[2], numbers[3]);
+    }
+}
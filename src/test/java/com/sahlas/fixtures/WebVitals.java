@@ -0,0 +1,267 @@
+package com.sahlas.fixtures;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * WebVitals collects the Largest Contentful Paint, Cumulative Layout Shift and Interaction to Next Paint of every
+ * document a scenario visits. An init script of the BrowserContext observes the browser's performance entries and
+ * reports them through a binding when the document is left; the last document is read when the scenario ends. Each
+ * document is filed under the page it was loaded from, even if client-side routing moved it on to another page.
+ * The metrics rely on Chromium's performance entry types, so they are only collected in Chromium; in other browsers
+ * the report says so instead of writing empty rows. The LCP of scenarios whose images the lean routing profile blocks
+ * is not recorded either, since the largest element is then missing from the page.
+ * <p>
+ * Rows are appended to WEB_VITALS_HISTORY (.cache/web-vitals-history.csv), one per scenario and page with the worst
+ * value of each metric, so the file grows by run and the www dashboard can chart p50 and p95 trends across runs.
+ */
+public class WebVitals {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final boolean WEB_VITALS = dotenv.get("WEB_VITALS", "true").equalsIgnoreCase("true");
+    private static final String WEB_VITALS_HISTORY = dotenv.get("WEB_VITALS_HISTORY", ".cache/web-vitals-history.csv");
+    private static final String RUN_ID = System.getProperty("RUN_ID",
+            dotenv.get("RUN_ID", Instant.now().truncatedTo(ChronoUnit.SECONDS).toString()));
+    private static final String HEADER = "run,user_type,scenario,page,lcp_ms,cls,inp_ms";
+    private static final String BINDING = "__swagLabsWebVitals";
+
+    // Observes the entries from the start of the document; the CLS is the largest session window of layout shifts
+    // (gaps under 1 s, at most 5 s long) and the INP the longest interaction, as web-vitals computes them
+    private static final String INIT_SCRIPT = """
+            (() => {
+                if (window.top !== window || typeof PerformanceObserver === 'undefined') {
+                    return;
+                }
+                const vitals = {lcp: null, cls: null, inp: null};
+                let session = 0, sessionStart = 0, sessionLast = 0;
+                const observe = (type, handle, options) => {
+                    try {
+                        new PerformanceObserver(list => list.getEntries().forEach(handle))
+                                .observe(Object.assign({type, buffered: true}, options));
+                    } catch (e) {
+                        // The browser does not support this entry type
+                    }
+                };
+                observe('largest-contentful-paint', entry => vitals.lcp = entry.startTime);
+                observe('layout-shift', entry => {
+                    if (entry.hadRecentInput) {
+                        return;
+                    }
+                    if (session && (entry.startTime - sessionLast > 1000 || entry.startTime - sessionStart > 5000)) {
+                        session = 0;
+                    }
+                    if (!session) {
+                        sessionStart = entry.startTime;
+                    }
+                    session += entry.value;
+                    sessionLast = entry.startTime;
+                    vitals.cls = Math.max(vitals.cls || 0, session);
+                });
+                if (PerformanceObserver.supportedEntryTypes && PerformanceObserver.supportedEntryTypes.includes('layout-shift')) {
+                    vitals.cls = 0;
+                }
+                observe('event', entry => {
+                    if (entry.interactionId) {
+                        vitals.inp = Math.max(vitals.inp || 0, entry.duration);
+                    }
+                }, {durationThreshold: 16});
+                // Named after the URL the document was loaded from, as NavigationTiming does, not the route it ended on
+                window.__swagLabsVitals = () => {
+                    const navigation = performance.getEntriesByType('navigation')[0];
+                    return Object.assign({url: navigation ? navigation.name : location.href,
+                            timeOrigin: performance.timeOrigin}, vitals);
+                };
+                addEventListener('pagehide', () => {
+                    if (window.%1$s) {
+                        window.%1$s(window.__swagLabsVitals());
+                    }
+                });
+            })();
+            """.formatted(BINDING);
+
+    /**
+     * The worst metrics of one page in one scenario.
+     *
+     * @param userType The user type of the run.
+     * @param scenario The scenario name.
+     * @param page     The page name, e.g. inventory.
+     * @param lcpMs    The Largest Contentful Paint in ms, or null if not measured.
+     * @param cls      The Cumulative Layout Shift, or null if not measured.
+     * @param inpMs    The Interaction to Next Paint in ms, or null without interactions.
+     */
+    public record Row(String userType, String scenario, String page, Double lcpMs, Double cls, Double inpMs) {
+        String toCsv() {
+            return String.join(",", csv(RUN_ID), csv(userType), csv(scenario), csv(page),
+                    lcpMs == null ? "" : String.valueOf(Math.round(lcpMs)),
+                    cls == null ? "" : String.format("%.4f", cls),
+                    inpMs == null ? "" : String.valueOf(Math.round(inpMs)));
+        }
+    }
+
+    /**
+     * The documents of one scenario, reported from the browser as they are left.
+     */
+    public static final class Collector {
+        private final String scenario;
+        private final boolean lcp;
+        // Keyed by the document's time origin, so a document reported twice is counted once
+        private final Map<Double, Map<?, ?>> documents = new LinkedHashMap<>();
+
+        private Collector(String scenario, boolean lcp) {
+            this.scenario = scenario;
+            this.lcp = lcp;
+        }
+
+        private synchronized void add(Map<?, ?> vitals) {
+            if (vitals != null && vitals.get("url") instanceof String url && url.startsWith("http")) {
+                documents.put(((Number) vitals.get("timeOrigin")).doubleValue(), vitals);
+            }
+        }
+
+        private synchronized List<Row> rows() {
+            Map<String, Row> byPage = new LinkedHashMap<>();
+            documents.values().forEach(vitals -> {
+                String page = NavigationTiming.pageName((String) vitals.get("url"));
+                Row row = new Row(LoginStateCache.currentUserType(), scenario, page,
+                        lcp ? number(vitals.get("lcp")) : null, number(vitals.get("cls")), number(vitals.get("inp")));
+                byPage.merge(page, row, WebVitals::worst);
+            });
+            return new ArrayList<>(byPage.values());
+        }
+    }
+
+    private static final Queue<Row> pending = new ConcurrentLinkedQueue<>();
+    // The browsers whose scenarios were not measured, named in the report
+    private static final Set<String> skippedBrowsers = ConcurrentHashMap.newKeySet();
+
+    private WebVitals() {
+    }
+
+    /**
+     * Installs the observers on a scenario's BrowserContext, for every document it loads from now on.
+     *
+     * @param context       The scenario's BrowserContext.
+     * @param scenario      The scenario name.
+     * @param imagesBlocked true if the scenario's images are blocked, which leaves its LCP unrecorded.
+     * @return The collector of the scenario's documents, or null if WEB_VITALS is disabled or the browser is not
+     * Chromium.
+     */
+    public static Collector install(BrowserContext context, String scenario, boolean imagesBlocked) {
+        if (!WEB_VITALS) {
+            return null;
+        }
+        String browser = context.browser() == null ? "unknown" : context.browser().browserType().name();
+        if (!browser.equals("chromium")) {
+            if (skippedBrowsers.add(browser)) {
+                System.out.println("Web vitals are only collected in Chromium, not in " + browser);
+            }
+            return null;
+        }
+        Collector collector = new Collector(scenario, !imagesBlocked);
+        context.exposeBinding(BINDING, (source, args) -> {
+            collector.add(args.length > 0 && args[0] instanceof Map<?, ?> vitals ? vitals : null);
+            return null;
+        });
+        context.addInitScript(INIT_SCRIPT);
+        return collector;
+    }
+
+    /**
+     * Reads the metrics of the page's current document and queues the scenario's rows for the history.
+     * Must be called before the context is closed.
+     *
+     * @param collector The scenario's collector, or null when nothing was collected.
+     * @param page      The scenario's page, or null.
+     */
+    public static void completeScenario(Collector collector, Page page) {
+        if (collector == null) {
+            return;
+        }
+        if (page != null && !page.isClosed()) {
+            try {
+                collector.add((Map<?, ?>) page.evaluate("() => window.__swagLabsVitals ? window.__swagLabsVitals() : null"));
+            } catch (PlaywrightException e) {
+                System.out.println("Failed to read web vitals of " + page.url() + ": " + e.getMessage());
+            }
+        }
+        pending.addAll(collector.rows());
+    }
+
+    /**
+     * Appends the queued rows to WEB_VITALS_HISTORY. The file is locked while appending, so several JVMs of a run
+     * can share it.
+     *
+     * @return A one-line summary of the rows written.
+     */
+    public static String report() {
+        List<String> lines = new ArrayList<>();
+        for (Row row = pending.poll(); row != null; row = pending.poll()) {
+            lines.add(row.toCsv());
+        }
+        if (lines.isEmpty()) {
+            return skippedBrowsers.isEmpty() ? "Web vitals: none"
+                    : "Web vitals: none, they are only collected in Chromium, not in " + String.join(", ", skippedBrowsers);
+        }
+        Path path = Paths.get(WEB_VITALS_HISTORY);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                FileLock lock = channel.lock();
+                try {
+                    StringBuilder text = new StringBuilder();
+                    if (channel.size() == 0) {
+                        text.append(HEADER).append('\n');
+                    }
+                    lines.forEach(line -> text.append(line).append('\n'));
+                    channel.write(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)));
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            return "Failed to append web vitals to " + WEB_VITALS_HISTORY + ": " + e.getMessage();
+        }
+        return "Web vitals: " + lines.size() + " rows of run " + RUN_ID + " appended to " + WEB_VITALS_HISTORY;
+    }
+
+    private static Row worst(Row first, Row second) {
+        return new Row(first.userType(), first.scenario(), first.page(), max(first.lcpMs(), second.lcpMs()),
+                max(first.cls(), second.cls()), max(first.inpMs(), second.inpMs()));
+    }
+
+    private static Double max(Double first, Double second) {
+        return first == null ? second : second == null ? first : Double.valueOf(Math.max(first, second));
+    }
+
+    private static Double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private static String csv(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
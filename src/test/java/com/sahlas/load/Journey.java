@@ -0,0 +1,118 @@
+package com.sahlas.load;
+
+import io.cucumber.datatable.DataTable;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The shopper journeys of the load generator, each a walk through the purchase funnel built from the page objects
+ * the scenarios use. Every journey logs in through the login page first, so each one starts a new session.
+ */
+public enum Journey {
+    /**
+     * Logs in, sorts the inventory by price and opens a product's details.
+     */
+    BROWSE {
+        @Override
+        void run(Shopper shopper) {
+            logIn(shopper);
+            shopper.step("sort products", () -> {
+                shopper.productListPage().sortBy("Price (low to high)");
+                shopper.expect(shopper.productListPage().getFirstProductName("Sauce Labs Onesie"),
+                        "the cheapest product is listed first");
+            });
+            shopper.step("view product", () -> {
+                shopper.productListPage().clickOnProductName(shopper.product());
+                shopper.page().waitForURL("**/inventory-item.html*");
+            });
+        }
+    },
+    /**
+     * Logs in, adds a product to the cart and opens the cart.
+     */
+    CART {
+        @Override
+        void run(Shopper shopper) {
+            logIn(shopper);
+            fillCart(shopper);
+        }
+    },
+    /**
+     * Logs in, adds a product to the cart and checks it out up to the order confirmation.
+     */
+    PURCHASE {
+        @Override
+        void run(Shopper shopper) {
+            logIn(shopper);
+            fillCart(shopper);
+            shopper.step("check out", () -> {
+                shopper.productListPage().clickCheckoutButton();
+                shopper.page().waitForURL("**/checkout-step-one.html");
+            });
+            shopper.step("enter information", () -> {
+                shopper.checkoutInformationPage().fillInPersonalInformation(PERSONAL_INFORMATION);
+                shopper.checkoutInformationPage().buttonClick("continue");
+                shopper.page().waitForURL("**/checkout-step-two.html");
+            });
+            shopper.step("finish", () -> {
+                shopper.checkoutOverviewPage().finishButtonClick();
+                shopper.page().waitForURL("**/checkout-complete.html");
+                shopper.expect(shopper.checkoutCompletePage().getOrderConfirmationMessage(),
+                        "the order is confirmed");
+            });
+        }
+    };
+
+    private static final DataTable PERSONAL_INFORMATION = DataTable.create(List.of(
+            List.of("first_name", "last_name", "postal_code"),
+            List.of("Sally", "Shopper", "12345")));
+
+    /**
+     * Walks the journey, timing each of its steps.
+     *
+     * @param shopper The shopper, with a page of its own BrowserContext.
+     */
+    abstract void run(Shopper shopper);
+
+    /**
+     * Retrieves the journey name used in LOAD_JOURNEY_MIX and the report.
+     *
+     * @return The lower-case journey name, e.g. purchase.
+     */
+    public String journeyName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds a journey by the name used in LOAD_JOURNEY_MIX.
+     *
+     * @param name The journey name, e.g. purchase.
+     * @return The journey.
+     * @throws IllegalArgumentException if no journey has that name.
+     */
+    public static Journey fromName(String name) {
+        for (Journey journey : values()) {
+            if (journey.journeyName().equals(name.trim().toLowerCase(Locale.ROOT))) {
+                return journey;
+            }
+        }
+        throw new IllegalArgumentException("Unknown journey " + name + ": expected browse, cart or purchase");
+    }
+
+    private static void logIn(Shopper shopper) {
+        shopper.step("open login page", () -> shopper.loginPage().openHomePage());
+        shopper.step("log in", () -> {
+            shopper.loginPage().loginUser(shopper.user());
+            shopper.expect(shopper.productListPage().checkPageUrl(), "the login leads to the inventory page");
+        });
+    }
+
+    private static void fillCart(Shopper shopper) {
+        shopper.step("add to cart", () -> shopper.productListPage().addProductToCart(shopper.product()));
+        shopper.step("open cart", () -> {
+            shopper.shoppingCartPage().openShoppingCartPage();
+            shopper.expect(shopper.shoppingCartPage().checkPageTitle(), "the cart page is shown");
+        });
+    }
+}
@@ -0,0 +1,222 @@
+package com.sahlas.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.sahlas.domain.User;
+import com.sahlas.fixtures.BrowserPool;
+import com.sahlas.fixtures.LoginStateCache;
+import com.sahlas.fixtures.PooledBrowser;
+import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.standin.StandInServer;
+import com.sahlas.swaglabs.catalog.Product;
+import com.sahlas.swaglabs.catalog.SwagLabsCatalog;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator runs synthetic shoppers through the purchase funnel for capacity testing, reusing the page objects
+ * of the scenarios. Journeys arrive at LOAD_ARRIVAL_RATE per second for LOAD_DURATION seconds, each picked from
+ * LOAD_JOURNEY_MIX (e.g. {@code browse=5,cart=3,purchase=2}) and walked in a BrowserContext of its own; at most
+ * LOAD_SHOPPERS journeys run at once, and later arrivals wait for a free shopper, which the report shows as start
+ * delay. Each shopper is a thread that leases one of LOAD_SHOPPERS browsers from a {@link BrowserPool} of its own,
+ * so the step latencies measure the stand-in and the browser rather than a wait for a shared Playwright connection;
+ * the lease wait is reported separately.
+ * <p>
+ * The load always targets the embedded {@link StandInServer}, whose STANDIN_LATENCY shapes the backend. Screenshots
+ * are turned off, and Allure steps are not recorded since the AspectJ agent only runs under Surefire and Failsafe.
+ * The throughput, error rate and latency percentiles per journey and step are printed and written to LOAD_REPORT
+ * (target/load-report.json); the process exits with status 1 if the error rate exceeds LOAD_MAX_ERROR_RATE.
+ * <p>
+ * Run with {@code mvn -Pload test-compile exec:exec}.
+ */
+public class LoadGenerator {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final double LOAD_ARRIVAL_RATE = Double.parseDouble(dotenv.get("LOAD_ARRIVAL_RATE", "2"));
+    private static final long LOAD_DURATION = Long.parseLong(dotenv.get("LOAD_DURATION", "60"));
+    private static final int LOAD_SHOPPERS = Integer.parseInt(dotenv.get("LOAD_SHOPPERS", "10"));
+    private static final String LOAD_JOURNEY_MIX = dotenv.get("LOAD_JOURNEY_MIX", "browse=5,cart=3,purchase=2");
+    private static final double LOAD_STEP_TIMEOUT = Double.parseDouble(dotenv.get("LOAD_STEP_TIMEOUT", "10000"));
+    private static final double LOAD_MAX_ERROR_RATE = Double.parseDouble(dotenv.get("LOAD_MAX_ERROR_RATE", "0.01"));
+    private static final String LOAD_REPORT = dotenv.get("LOAD_REPORT", "target/load-report.json");
+    // Only the first failures are logged with their cause, the rest are counted in the report
+    private static final int LOGGED_FAILURES = 10;
+
+    private final Map<Journey, Integer> mix;
+    private final int totalWeight;
+    private final User user;
+    private final LoadStatistics statistics = new LoadStatistics();
+    private final BrowserPool browsers;
+    private final AtomicInteger loggedFailures = new AtomicInteger();
+
+    LoadGenerator(Map<Journey, Integer> mix, User user) {
+        if (LOAD_ARRIVAL_RATE <= 0 || LOAD_SHOPPERS < 1) {
+            throw new IllegalArgumentException("LOAD_ARRIVAL_RATE must be positive and LOAD_SHOPPERS at least 1");
+        }
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.user = user;
+        this.browsers = BrowserPool.ofSize(LOAD_SHOPPERS);
+    }
+
+    public static void main(String[] args) {
+        // Resolved before any page object loads its URLs, so every journey goes to the stand-in
+        System.setProperty("SWAG_LABS_TARGET", "standin");
+        ScreenshotManager.setPolicy(ScreenshotManager.Policy.OFF);
+        StandInServer.shared();
+
+        LoadGenerator generator = new LoadGenerator(parseMix(LOAD_JOURNEY_MIX),
+                User.forUserType(LoginStateCache.currentUserType()));
+        double errorRate;
+        try {
+            errorRate = generator.run();
+        } finally {
+            generator.browsers.shutdown();
+        }
+        if (errorRate > LOAD_MAX_ERROR_RATE) {
+            System.out.printf("Error rate %.2f%% exceeds LOAD_MAX_ERROR_RATE %.2f%%%n", errorRate * 100,
+                    LOAD_MAX_ERROR_RATE * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parses a journey mix such as {@code browse=5,cart=3,purchase=2}.
+     *
+     * @param specification Comma-separated journey=weight pairs.
+     * @return The weight per journey.
+     * @throws IllegalArgumentException if an entry is not of the form journey=weight or no journey has a weight.
+     */
+    static Map<Journey, Integer> parseMix(String specification) {
+        Map<Journey, Integer> mix = new LinkedHashMap<>();
+        for (String entry : specification.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2 || Integer.parseInt(parts[1].trim()) < 0) {
+                throw new IllegalArgumentException("Invalid LOAD_JOURNEY_MIX entry: " + entry);
+            }
+            mix.put(Journey.fromName(parts[0]), Integer.parseInt(parts[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("LOAD_JOURNEY_MIX has no journey with a positive weight: " + specification);
+        }
+        return mix;
+    }
+
+    /**
+     * Schedules the arrivals for LOAD_DURATION seconds and waits for every journey to end.
+     *
+     * @return The error rate of the run.
+     */
+    double run() {
+        System.out.printf("Load: %.1f journeys/s for %d s, at most %d shoppers, mix %s%n",
+                LOAD_ARRIVAL_RATE, LOAD_DURATION, LOAD_SHOPPERS, mix);
+        // Launches the browsers before the clock starts
+        browsers.release(browsers.lease());
+
+        long interval = Math.round(1_000_000_000 / LOAD_ARRIVAL_RATE);
+        long duration = TimeUnit.SECONDS.toNanos(LOAD_DURATION);
+        AtomicInteger shopperCount = new AtomicInteger();
+        ExecutorService shoppers = Executors.newFixedThreadPool(LOAD_SHOPPERS, task -> {
+            Thread thread = new Thread(task, "load-shopper-" + shopperCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            // Arrivals follow the schedule whatever the journeys' latency, so a slow backend shows as start delay
+            for (long arrival = start; arrival - start < duration; arrival += interval) {
+                LockSupport.parkNanos(arrival - System.nanoTime());
+                Journey journey = pick();
+                long scheduled = arrival;
+                shoppers.submit(() -> shop(journey, scheduled));
+            }
+        } finally {
+            shoppers.shutdown();
+        }
+        try {
+            shoppers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(statistics.summary(elapsed));
+        try {
+            Path path = Paths.get(LOAD_REPORT);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsBytes(statistics.toReport(elapsed)));
+        } catch (IOException e) {
+            System.out.println("Failed to write load report: " + e.getMessage());
+        }
+        return statistics.errorRate();
+    }
+
+    private void shop(Journey journey, long scheduled) {
+        long start = System.nanoTime();
+        statistics.recordStartDelay(start - scheduled);
+        PooledBrowser browser = null;
+        String failedStep = null;
+        try {
+            browser = browsers.lease();
+            statistics.recordBrowserWait(System.nanoTime() - start);
+            try (BrowserContext context = browser.getBrowser().newContext()) {
+                browser.contextCreated();
+                context.setDefaultTimeout(LOAD_STEP_TIMEOUT);
+                Page page = context.newPage();
+                journey.run(new Shopper(page, user, product(), statistics));
+            }
+        } catch (Shopper.StepFailedException e) {
+            failedStep = e.step();
+            logFailure(journey, e);
+        } catch (RuntimeException e) {
+            // The browser could not be leased, or the context could not be opened or closed
+            failedStep = "context";
+            logFailure(journey, e);
+        } finally {
+            statistics.recordJourney(journey, System.nanoTime() - start, failedStep);
+            browsers.release(browser);
+        }
+    }
+
+    private Journey pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Journey, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Journey mix weights changed while picking");
+    }
+
+    private static String product() {
+        List<Product> products = SwagLabsCatalog.STANDARD_PRODUCTS;
+        return products.get(ThreadLocalRandom.current().nextInt(products.size())).name();
+    }
+
+    private void logFailure(Journey journey, RuntimeException e) {
+        if (loggedFailures.incrementAndGet() <= LOGGED_FAILURES) {
+            System.out.println("Journey " + journey.journeyName() + " failed: " + e.getMessage());
+        }
+    }
+}
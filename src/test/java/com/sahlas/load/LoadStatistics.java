@@ -0,0 +1,169 @@
+package com.sahlas.load;
+
+import com.sahlas.cucumber.plugins.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadStatistics aggregates the outcome of a load run: the journeys and steps completed or failed with their
+ * latency histograms, how long arrivals waited for a free shopper and how long shoppers waited for a browser, which
+ * is kept out of the step latencies. Shoppers record concurrently without locking.
+ */
+public class LoadStatistics {
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    // Latencies and failures of one journey or step
+    private static final class Timings {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+
+        private void record(long nanos, boolean succeeded) {
+            latency.record(nanos / 1_000);
+            if (!succeeded) {
+                failures.increment();
+            }
+        }
+
+        private Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", latency.count());
+            summary.put("failures", failures.sum());
+            for (double percentile : PERCENTILES) {
+                summary.put("p" + (int) percentile + "Ms", latency.percentileMicros(percentile) / 1_000);
+            }
+            summary.put("maxMs", latency.maxMicros() / 1_000);
+            return summary;
+        }
+    }
+
+    private final ConcurrentMap<String, Timings> journeys = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timings> steps = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> failedSteps = new ConcurrentHashMap<>();
+    private final LatencyHistogram startDelay = new LatencyHistogram();
+    private final LatencyHistogram browserWait = new LatencyHistogram();
+
+    /**
+     * Records the time an arrival waited for a free shopper.
+     *
+     * @param nanos The delay between the scheduled arrival and the start of the journey.
+     */
+    public void recordStartDelay(long nanos) {
+        startDelay.record(nanos / 1_000);
+    }
+
+    /**
+     * Records the time a shopper waited for a browser of the pool.
+     *
+     * @param nanos The duration of the browser lease.
+     */
+    public void recordBrowserWait(long nanos) {
+        browserWait.record(nanos / 1_000);
+    }
+
+    /**
+     * Records one step of a journey.
+     *
+     * @param step      The step name.
+     * @param nanos     The duration of the step.
+     * @param succeeded false if the step threw.
+     */
+    public void recordStep(String step, long nanos, boolean succeeded) {
+        steps.computeIfAbsent(step, name -> new Timings()).record(nanos, succeeded);
+    }
+
+    /**
+     * Records one journey.
+     *
+     * @param journey    The journey.
+     * @param nanos      The duration of the journey, from the start of its first step.
+     * @param failedStep The step the journey failed at, or null if it completed.
+     */
+    public void recordJourney(Journey journey, long nanos, String failedStep) {
+        journeys.computeIfAbsent(journey.journeyName(), name -> new Timings()).record(nanos, failedStep == null);
+        if (failedStep != null) {
+            failedSteps.computeIfAbsent(journey.journeyName() + " at " + failedStep, name -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Retrieves the number of journeys run.
+     *
+     * @return The completed and failed journeys.
+     */
+    public long journeyCount() {
+        return journeys.values().stream().mapToLong(timings -> timings.latency.count()).sum();
+    }
+
+    /**
+     * Retrieves the fraction of journeys that failed.
+     *
+     * @return The error rate between 0 and 1, or 0 if no journey ran.
+     */
+    public double errorRate() {
+        long count = journeyCount();
+        long failures = journeys.values().stream().mapToLong(timings -> timings.failures.sum()).sum();
+        return count == 0 ? 0 : failures / (double) count;
+    }
+
+    /**
+     * Builds the report of the run as a JSON-serializable map.
+     *
+     * @param elapsedNanos The duration of the run, from the first arrival until the last journey ended.
+     * @return The throughput, error rate, start delay, browser wait and the latency percentiles per journey and step.
+     */
+    public Map<String, Object> toReport(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", Math.round(seconds * 10) / 10.0);
+        report.put("journeys", journeyCount());
+        report.put("throughputPerSecond", seconds == 0 ? 0 : Math.round(journeyCount() / seconds * 100) / 100.0);
+        report.put("errorRate", errorRate());
+        report.put("startDelayP95Ms", startDelay.percentileMicros(95) / 1_000);
+        report.put("startDelayMaxMs", startDelay.maxMicros() / 1_000);
+        report.put("browserWaitP95Ms", browserWait.percentileMicros(95) / 1_000);
+        report.put("browserWaitMaxMs", browserWait.maxMicros() / 1_000);
+        report.put("journeyLatency", summaries(journeys));
+        report.put("stepLatency", summaries(steps));
+        Map<String, Long> failures = new TreeMap<>();
+        failedSteps.forEach((step, count) -> failures.put(step, count.sum()));
+        report.put("failures", failures);
+        return report;
+    }
+
+    /**
+     * Summarizes the run in a few lines.
+     *
+     * @param elapsedNanos The duration of the run.
+     * @return The throughput, error rate and per-step latency percentiles as a String.
+     */
+    public String summary(long elapsedNanos) {
+        Map<String, Object> report = toReport(elapsedNanos);
+        StringBuilder summary = new StringBuilder(String.format(
+                "Load: %d journeys in %.1f s, %.2f journeys/s, error rate %.2f%%, start delay p95=%d ms,"
+                        + " browser wait p95=%d ms",
+                journeyCount(), elapsedNanos / 1_000_000_000.0, (double) report.get("throughputPerSecond"),
+                errorRate() * 100, (long) report.get("startDelayP95Ms"), (long) report.get("browserWaitP95Ms")));
+        appendSummaries(summary, "journey", journeys);
+        appendSummaries(summary, "step", steps);
+        failedSteps.forEach((step, count) -> summary.append(String.format("%n  failed %s: %d", step, count.sum())));
+        return summary.toString();
+    }
+
+    private static Map<String, Map<String, Object>> summaries(Map<String, Timings> timings) {
+        Map<String, Map<String, Object>> summaries = new TreeMap<>();
+        timings.forEach((name, timing) -> summaries.put(name, timing.summary()));
+        return summaries;
+    }
+
+    private static void appendSummaries(StringBuilder summary, String kind, Map<String, Timings> timings) {
+        summaries(timings).forEach((name, timing) -> summary.append(String.format(
+                "%n  %s %s: %d runs, %d failed, p50=%d ms, p95=%d ms, p99=%d ms, max=%d ms", kind, name,
+                timing.get("count"), timing.get("failures"), timing.get("p50Ms"), timing.get("p95Ms"),
+                timing.get("p99Ms"), timing.get("maxMs"))));
+    }
+}
@@ -0,0 +1,132 @@
+package com.sahlas.load;
+
+import com.microsoft.playwright.Page;
+import com.sahlas.domain.User;
+import com.sahlas.swaglabs.catalog.pageobjects.CheckoutCompletePage;
+import com.sahlas.swaglabs.catalog.pageobjects.CheckoutInformationPage;
+import com.sahlas.swaglabs.catalog.pageobjects.CheckoutOverviewPage;
+import com.sahlas.swaglabs.catalog.pageobjects.LoginPage;
+import com.sahlas.swaglabs.catalog.pageobjects.ProductListPage;
+import com.sahlas.swaglabs.catalog.pageobjects.ShoppingCartPage;
+
+/**
+ * Shopper is one synthetic shopper walking a {@link Journey} on a page of its own BrowserContext.
+ * It provides the journey with the page objects of that page and times every step into the {@link LoadStatistics}.
+ */
+public final class Shopper {
+    private final Page page;
+    private final User user;
+    private final String product;
+    private final LoadStatistics statistics;
+    private final LoginPage loginPage;
+    private final ProductListPage productListPage;
+    private final ShoppingCartPage shoppingCartPage;
+    private final CheckoutInformationPage checkoutInformationPage;
+    private final CheckoutOverviewPage checkoutOverviewPage;
+    private final CheckoutCompletePage checkoutCompletePage;
+
+    /**
+     * A step of a journey failed.
+     */
+    static final class StepFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final String step;
+
+        StepFailedException(String step, RuntimeException cause) {
+            super(step + " failed: " + cause.getMessage(), cause);
+            this.step = step;
+        }
+
+        String step() {
+            return step;
+        }
+    }
+
+    /**
+     * Creates a shopper.
+     *
+     * @param page       The page of the shopper's BrowserContext.
+     * @param user       The user the shopper logs in as.
+     * @param product    The name of the product the shopper views or buys.
+     * @param statistics The statistics the step timings are recorded in.
+     */
+    Shopper(Page page, User user, String product, LoadStatistics statistics) {
+        this.page = page;
+        this.user = user;
+        this.product = product;
+        this.statistics = statistics;
+        this.loginPage = new LoginPage(page);
+        this.productListPage = new ProductListPage(page);
+        this.shoppingCartPage = new ShoppingCartPage(page);
+        this.checkoutInformationPage = new CheckoutInformationPage(page);
+        this.checkoutOverviewPage = new CheckoutOverviewPage(page);
+        this.checkoutCompletePage = new CheckoutCompletePage(page);
+    }
+
+    /**
+     * Runs and times one step of the journey. A failed step ends the journey.
+     *
+     * @param name   The step name in the report, e.g. log in.
+     * @param action The page object calls of the step.
+     * @throws StepFailedException if the step throws.
+     */
+    void step(String name, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            statistics.recordStep(name, System.nanoTime() - start, false);
+            throw new StepFailedException(name, e);
+        }
+        statistics.recordStep(name, System.nanoTime() - start, true);
+    }
+
+    /**
+     * Checks the outcome of a step.
+     *
+     * @param condition   The check made by the page object.
+     * @param expectation What the step expects, for the failure message.
+     * @throws IllegalStateException if the condition is false.
+     */
+    void expect(boolean condition, String expectation) {
+        if (!condition) {
+            throw new IllegalStateException("Expected " + expectation + " on " + page.url());
+        }
+    }
+
+    Page page() {
+        return page;
+    }
+
+    User user() {
+        return user;
+    }
+
+    String product() {
+        return product;
+    }
+
+    LoginPage loginPage() {
+        return loginPage;
+    }
+
+    ProductListPage productListPage() {
+        return productListPage;
+    }
+
+    ShoppingCartPage shoppingCartPage() {
+        return shoppingCartPage;
+    }
+
+    CheckoutInformationPage checkoutInformationPage() {
+        return checkoutInformationPage;
+    }
+
+    CheckoutOverviewPage checkoutOverviewPage() {
+        return checkoutOverviewPage;
+    }
+
+    CheckoutCompletePage checkoutCompletePage() {
+        return checkoutCompletePage;
+    }
+}
@@ -0,0 +1,202 @@
+package com.sahlas.standin;
+
+import com.sahlas.swaglabs.catalog.Product;
+
+import java.util.List;
+
+/**
+ * Renders the HTML pages of the Swag Labs stand-in.
+ * The markup keeps the class names and data-test attributes of saucedemo.com that the page objects rely on;
+ * dynamic parts (cart contents, buttons, totals) are filled in by /static/app.js from the client-side cart.
+ */
+final class StandInPages {
+
+    private static final String[][] SORT_OPTIONS = {
+            {"az", "Name (A to Z)"},
+            {"za", "Name (Z to A)"},
+            {"lohi", "Price (low to high)"},
+            {"hilo", "Price (high to low)"}
+    };
+
+    private StandInPages() {
+    }
+
+    static String login(String error) {
+        return document("login", "", """
+                <div class="login_logo">Swag Labs</div>
+                <div class="login_wrapper">
+                  <form>
+                    <input class="input_error form_input" placeholder="Username" type="text" data-test="username" id="user-name" name="user-name" autocorrect="off" autocapitalize="none">
+                    <input class="input_error form_input" placeholder="Password" type="password" data-test="password" id="password" name="password" autocorrect="off" autocapitalize="none">
+                    <div class="error-message-container%s"><h3 data-test="error">%s</h3></div>
+                    <input type="submit" class="submit-button btn_action" data-test="login-button" id="login-button" name="login-button" value="Login">
+                  </form>
+                </div>
+                """.formatted(error.isEmpty() ? "" : " error", escape(error)));
+    }
+
+    static String inventory(List<Product> products) {
+        StringBuilder items = new StringBuilder();
+        for (Product product : products) {
+            items.append("""
+                    <div class="inventory_item" data-test="inventory-item" data-id="%1$d">
+                      <div class="inventory_item_img"><a href="/inventory-item.html?id=%1$d" data-test="item-%1$d-img-link"><img alt="%2$s" class="inventory_item_img" src="/static/media/%1$d.svg" data-test="inventory-item-%3$s-img"></a></div>
+                      <div class="inventory_item_description" data-test="inventory-item-description">
+                        <div class="inventory_item_label">
+                          <a href="/inventory-item.html?id=%1$d" data-test="item-%1$d-title-link"><div class="inventory_item_name" data-test="inventory-item-name">%2$s</div></a>
+                          <div class="inventory_item_desc" data-test="inventory-item-desc">%4$s</div>
+                        </div>
+                        <div class="pricebar"><div class="inventory_item_price" data-test="inventory-item-price">%5$s</div><button class="btn btn_primary" data-test="add-to-cart-%3$s">Add to cart</button></div>
+                      </div>
+                    </div>
+                    """.formatted(product.id(), escape(product.name()), escape(product.slug()),
+                    escape(product.description()), product.price()));
+        }
+        StringBuilder options = new StringBuilder();
+        for (String[] option : SORT_OPTIONS) {
+            options.append("<option value=\"").append(option[0]).append("\">").append(option[1]).append("</option>");
+        }
+        return document("inventory", """
+                <span class="title" data-test="title">Products</span>
+                <div class="right_component"><span class="select_container"><span class="active_option" data-test="active-option">Name (A to Z)</span>
+                <select class="product_sort_container" data-test="product-sort-container">%s</select></span></div>
+                """.formatted(options), """
+                <div class="inventory_list">
+                %s</div>
+                """.formatted(items));
+    }
+
+    static String item(Product product) {
+        return document("item", """
+                <button class="btn btn_secondary back" data-test="back-to-products" id="back-to-products">Back to products</button>
+                """, """
+                <div class="inventory_details" data-test="inventory-container">
+                  <div class="inventory_details_container" data-test="inventory-item" data-id="%1$d">
+                    <img alt="%2$s" class="inventory_details_img" src="/static/media/%1$d.svg" data-test="item-%3$s-img">
+                    <div class="inventory_details_desc_container">
+                      <div class="inventory_details_name large_size" data-test="inventory-item-name">%2$s</div>
+                      <div class="inventory_details_desc large_size" data-test="inventory-item-desc">%4$s</div>
+                      <div class="inventory_details_price" data-test="inventory-item-price">%5$s</div>
+                      <button class="btn btn_primary btn_inventory" data-test="add-to-cart">Add to cart</button>
+                    </div>
+                  </div>
+                </div>
+                """.formatted(product.id(), escape(product.name()), escape(product.slug()),
+                escape(product.description()), product.price()));
+    }
+
+    static String cart() {
+        return document("cart", title("Your Cart"), """
+                <div class="cart_list" data-test="cart-list">
+                  <div class="cart_quantity_label" data-test="cart-quantity-label">QTY</div>
+                  <div class="cart_desc_label" data-test="cart-desc-label">Description</div>
+                </div>
+                <div class="cart_footer">
+                  <button class="btn btn_secondary back" data-test="continue-shopping" id="continue-shopping">Continue Shopping</button>
+                  <button class="btn btn_action checkout_button" data-test="checkout" id="checkout">Checkout</button>
+                </div>
+                """);
+    }
+
+    static String checkoutInformation() {
+        return document("checkout-information", title("Checkout: Your Information"), """
+                <div class="checkout_info_container"><form>
+                  <div class="checkout_info">
+                    <input class="input_error form_input" placeholder="First Name" type="text" data-test="firstName" id="first-name" name="firstName">
+                    <input class="input_error form_input" placeholder="Last Name" type="text" data-test="lastName" id="last-name" name="lastName">
+                    <input class="input_error form_input" placeholder="Zip/Postal Code" type="text" data-test="postalCode" id="postal-code" name="postalCode">
+                    <div class="error-message-container"><h3 data-test="error"></h3></div>
+                  </div>
+                  <div class="checkout_buttons">
+                    <button class="btn btn_secondary back cart_cancel_link" data-test="cancel" id="cancel" type="button">Cancel</button>
+                    <input type="submit" class="submit-button btn btn_primary cart_button btn_action" data-test="continue" id="continue" name="continue" value="Continue">
+                  </div>
+                </form></div>
+                """);
+    }
+
+    static String checkoutOverview() {
+        return document("checkout-overview", title("Checkout: Overview"), """
+                <div class="cart_list" data-test="cart-list">
+                  <div class="cart_quantity_label" data-test="cart-quantity-label">QTY</div>
+                  <div class="cart_desc_label" data-test="cart-desc-label">Description</div>
+                </div>
+                <div class="summary_info" data-test="checkout-summary-container">
+                  <div class="summary_subtotal_label" data-test="subtotal-label"></div>
+                  <div class="summary_tax_label" data-test="tax-label"></div>
+                  <div class="summary_info_label summary_total_label" data-test="total-label"></div>
+                  <div class="cart_footer">
+                    <button class="btn btn_secondary back cart_cancel_link" data-test="cancel" id="cancel">Cancel</button>
+                    <button class="btn btn_action cart_button" data-test="finish" id="finish">Finish</button>
+                  </div>
+                </div>
+                """);
+    }
+
+    static String checkoutComplete() {
+        return document("checkout-complete", title("Checkout: Complete!"), """
+                <div class="checkout_complete_container" data-test="checkout-complete-container">
+                  <h2 class="complete-header" data-test="complete-header">Thank you for your order!</h2>
+                  <div class="complete-text" data-test="complete-text">Your order has been dispatched, and will arrive just as fast as the pony can get there!</div>
+                  <button class="btn btn_primary btn_small" data-test="back-to-products" id="back-to-products">Back Home</button>
+                </div>
+                """);
+    }
+
+    static String productImage(Product product) {
+        int hue = (product.id() * 47) % 360;
+        return """
+                <svg xmlns="http://www.w3.org/2000/svg" width="240" height="240" viewBox="0 0 240 240">
+                  <rect width="240" height="240" fill="hsl(%d, 60%%, 75%%)"/>
+                  <text x="120" y="128" font-family="sans-serif" font-size="20" text-anchor="middle">#%d</text>
+                </svg>
+                """.formatted(hue, product.id());
+    }
+
+    private static String title(String title) {
+        return "<span class=\"title\" data-test=\"title\">" + escape(title) + "</span>\n";
+    }
+
+    // Every page except the login page carries the app header with the cart link, and loads the catalog
+    private static String document(String page, String secondaryHeader, String content) {
+        boolean login = page.equals("login");
+        String header = login ? "" : """
+                <div class="primary_header" data-test="primary-header">
+                  <div class="app_logo">Swag Labs</div>
+                  <div class="shopping_cart_container"><a class="shopping_cart_link" data-test="shopping-cart-link" href="/cart.html"></a></div>
+                </div>
+                <div class="header_secondary_container" data-test="secondary-header">
+                %s</div>
+                """.formatted(secondaryHeader);
+        return """
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                <meta charset="utf-8">
+                <title>Swag Labs</title>
+                <link rel="stylesheet" href="/static/styles.css">
+                </head>
+                <body data-page="%s">
+                <div id="root">
+                %s%s</div>
+                %s<script src="/static/app.js"></script>
+                </body>
+                </html>
+                """.formatted(page, header, content, login ? "" : "<script src=\"/static/catalog.js\"></script>\n");
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
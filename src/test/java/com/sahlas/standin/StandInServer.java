@@ -0,0 +1,307 @@
+package com.sahlas.standin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sahlas.swaglabs.catalog.Product;
+import com.sahlas.swaglabs.catalog.SwagLabsCatalog;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * StandInServer is a lightweight in-JVM HTTP server that imitates the Swag Labs site for network-free runs.
+ * It serves the login, inventory, item details, cart and checkout pages with the same data-test attributes
+ * as saucedemo.com, a catalog of configurable size, and injectable per-endpoint latency.
+ * <p>
+ * Configuration (environment or .env):
+ * <ul>
+ *     <li>STANDIN_PORT - port to listen on, 0 (default) for any free port</li>
+ *     <li>STANDIN_CATALOG_SIZE - number of products, at least the six saucedemo.com products (default 6)</li>
+ *     <li>STANDIN_LATENCY - per-endpoint latency in ms, e.g. {@code inventory.html=200,cart.html=50,*=10}</li>
+ *     <li>STANDIN_GLITCH_DELAY - extra latency of the inventory page for performance_glitch_user (default 2000)</li>
+ * </ul>
+ */
+public class StandInServer {
+    static final Dotenv dotenv = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+    private static final int STANDIN_PORT = Integer.parseInt(dotenv.get("STANDIN_PORT", "0"));
+    private static final int STANDIN_CATALOG_SIZE = Integer.parseInt(dotenv.get("STANDIN_CATALOG_SIZE", "6"));
+    private static final String STANDIN_LATENCY = dotenv.get("STANDIN_LATENCY", "");
+    private static final long STANDIN_GLITCH_DELAY = Long.parseLong(dotenv.get("STANDIN_GLITCH_DELAY", "2000"));
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "js", "application/javascript; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "svg", "image/svg+xml");
+
+    private static StandInServer shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Product> products;
+    private final Map<Integer, Product> productsById;
+    private final Map<String, Long> latencyByEndpoint;
+    private final long glitchDelay;
+    private final byte[] catalogScript;
+
+    /**
+     * Creates a stand-in server bound to its port; it serves requests once {@link #start()} is called.
+     *
+     * @param port              The port to listen on, or 0 for any free port.
+     * @param products          The catalog to serve.
+     * @param latencyByEndpoint Latency in ms per endpoint file name (e.g. "inventory.html"); "*" applies to all others.
+     * @param glitchDelay       Extra inventory page latency in ms for performance_glitch_user.
+     * @throws UncheckedIOException if the server cannot bind the port.
+     */
+    public StandInServer(int port, List<Product> products, Map<String, Long> latencyByEndpoint, long glitchDelay) {
+        this.products = List.copyOf(products);
+        this.productsById = products.stream().collect(Collectors.toMap(Product::id, Function.identity()));
+        this.latencyByEndpoint = Map.copyOf(latencyByEndpoint);
+        this.glitchDelay = glitchDelay;
+        this.catalogScript = catalogScript(products);
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the Swag Labs stand-in on port " + port, e);
+        }
+        executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "standin-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts serving requests.
+     *
+     * @return This server, for chaining after the constructor.
+     */
+    public StandInServer start() {
+        server.createContext("/", this::handle);
+        server.start();
+        System.out.println("Swag Labs stand-in serving " + products.size() + " products at " + baseUrl());
+        return this;
+    }
+
+    /**
+     * Retrieves the stand-in shared by this JVM, starting it from the environment configuration on first use.
+     *
+     * @return The shared StandInServer.
+     */
+    public static synchronized StandInServer shared() {
+        if (shared == null) {
+            shared = new StandInServer(STANDIN_PORT, SwagLabsCatalog.ofSize(STANDIN_CATALOG_SIZE),
+                    parseLatency(STANDIN_LATENCY), STANDIN_GLITCH_DELAY).start();
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::stop, "standin-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * Retrieves the base URL of the stand-in, the equivalent of https://www.saucedemo.com/.
+     *
+     * @return The base URL, ending with a slash.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Parses a latency specification such as {@code inventory.html=200,cart.html=50,*=10}.
+     *
+     * @param specification Comma-separated endpoint=milliseconds pairs; may be blank.
+     * @return The latency in ms per endpoint.
+     * @throws IllegalArgumentException if an entry is not of the form endpoint=milliseconds.
+     */
+    static Map<String, Long> parseLatency(String specification) {
+        Map<String, Long> latency = new LinkedHashMap<>();
+        for (String entry : specification.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid STANDIN_LATENCY entry: " + entry);
+            }
+            latency.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+        }
+        return latency;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String endpoint = path.equals("/") ? "index.html" : path.substring(path.lastIndexOf('/') + 1);
+            Map<String, String> cookies = cookies(exchange);
+            delay(endpoint, cookies);
+
+            if (path.equals("/") || path.equals("/index.html")) {
+                String error = cookies.getOrDefault("login-error", "");
+                send(exchange, 200, "html", StandInPages.login(error).getBytes(StandardCharsets.UTF_8), false);
+                return;
+            }
+            if (path.startsWith("/static/")) {
+                serveStatic(exchange, path);
+                return;
+            }
+            if (!cookies.containsKey("session-username")) {
+                // Like saucedemo.com, pages behind the login send the visitor back with an explanation
+                String error = "Epic sadface: You can only access '" + path + "' when you are logged in.";
+                exchange.getResponseHeaders().add("Set-Cookie",
+                        "login-error=" + encode(error) + "; Path=/");
+                exchange.getResponseHeaders().add("Location", "/");
+                send(exchange, 302, "html", new byte[0], false);
+                return;
+            }
+            String page = switch (path) {
+                case "/inventory.html" -> StandInPages.inventory(products);
+                case "/inventory-item.html" -> itemPage(exchange);
+                case "/cart.html" -> StandInPages.cart();
+                case "/checkout-step-one.html" -> StandInPages.checkoutInformation();
+                case "/checkout-step-two.html" -> StandInPages.checkoutOverview();
+                case "/checkout-complete.html" -> StandInPages.checkoutComplete();
+                default -> null;
+            };
+            if (page == null) {
+                send(exchange, 404, "html", "Not found".getBytes(StandardCharsets.UTF_8), false);
+            } else {
+                send(exchange, 200, "html", page.getBytes(StandardCharsets.UTF_8), false);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Stand-in failed to serve " + exchange.getRequestURI() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private String itemPage(HttpExchange exchange) {
+        String query = Optional.ofNullable(exchange.getRequestURI().getQuery()).orElse("");
+        return Arrays.stream(query.split("&"))
+                .filter(parameter -> parameter.startsWith("id="))
+                .map(parameter -> product(parameter.substring(3)))
+                .filter(product -> product != null)
+                .findFirst()
+                .map(StandInPages::item)
+                .orElse(null);
+    }
+
+    // A malformed id finds no product, so the request is answered with a 404 like an unknown one
+    private Product product(String id) {
+        try {
+            return productsById.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void serveStatic(HttpExchange exchange, String path) throws IOException {
+        if (path.equals("/static/catalog.js")) {
+            send(exchange, 200, "js", catalogScript, true);
+        } else if (path.startsWith("/static/media/") && path.endsWith(".svg")) {
+            String id = path.substring("/static/media/".length(), path.length() - ".svg".length());
+            Product product = product(id);
+            if (product == null) {
+                send(exchange, 404, "html", new byte[0], false);
+            } else {
+                send(exchange, 200, "svg", StandInPages.productImage(product).getBytes(StandardCharsets.UTF_8), true);
+            }
+        } else {
+            String name = path.substring("/static/".length());
+            try (InputStream resource = StandInServer.class.getResourceAsStream("/standin/" + name)) {
+                if (resource == null || name.contains("..")) {
+                    send(exchange, 404, "html", new byte[0], false);
+                } else {
+                    send(exchange, 200, name.substring(name.lastIndexOf('.') + 1), resource.readAllBytes(), true);
+                }
+            }
+        }
+    }
+
+    private void delay(String endpoint, Map<String, String> cookies) {
+        long latency = latencyByEndpoint.getOrDefault(endpoint, latencyByEndpoint.getOrDefault("*", 0L));
+        if (endpoint.equals("inventory.html") && "performance_glitch_user".equals(cookies.get("session-username"))) {
+            latency += glitchDelay;
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String extension, byte[] body, boolean cacheable)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+        exchange.getResponseHeaders().set("Cache-Control", cacheable ? "public, max-age=3600" : "no-store");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static Map<String, String> cookies(HttpExchange exchange) {
+        Map<String, String> cookies = new LinkedHashMap<>();
+        for (String header : exchange.getRequestHeaders().getOrDefault("Cookie", List.of())) {
+            for (String cookie : header.split(";")) {
+                int separator = cookie.indexOf('=');
+                if (separator > 0 && separator < cookie.length() - 1) {
+                    cookies.put(cookie.substring(0, separator).trim(),
+                            URLDecoder.decode(cookie.substring(separator + 1).trim(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return cookies;
+    }
+
+    private static String encode(String value) {
+        return java.net.URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static byte[] catalogScript(List<Product> products) {
+        List<Map<String, Object>> catalog = products.stream()
+                .map(product -> Map.<String, Object>of(
+                        "id", product.id(),
+                        "name", product.name(),
+                        "description", product.description(),
+                        "price", product.priceCents()))
+                .toList();
+        try {
+            return ("window.CATALOG = " + new ObjectMapper().writeValueAsString(catalog) + ";\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the stand-in catalog", e);
+        }
+    }
+}
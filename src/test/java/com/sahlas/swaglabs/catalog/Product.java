@@ -0,0 +1,30 @@
+package com.sahlas.swaglabs.catalog;
+
+/**
+ * A product of the Swag Labs catalog.
+ *
+ * @param id          The inventory id used in item URLs and in the client-side cart.
+ * @param name        The product name shown on the inventory page.
+ * @param description The product description.
+ * @param priceCents  The price in cents.
+ */
+public record Product(int id, String name, String description, long priceCents) {
+
+    /**
+     * Formats the price the way the site displays it, e.g. "$29.99".
+     *
+     * @return The formatted price.
+     */
+    public String price() {
+        return String.format("$%d.%02d", priceCents / 100, priceCents % 100);
+    }
+
+    /**
+     * Builds the suffix the site uses in the product's data-test attributes, e.g. "sauce-labs-backpack".
+     *
+     * @return The product name in lower case with spaces replaced by dashes.
+     */
+    public String slug() {
+        return name.toLowerCase().replace(" ", "-");
+    }
+}
@@ -0,0 +1,73 @@
+package com.sahlas.swaglabs.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Swag Labs product catalog: the six products sold by saucedemo.com, with their real inventory ids,
+ * optionally extended with generated products for large-catalog runs against the stand-in server.
+ */
+public final class SwagLabsCatalog {
+
+    /**
+     * The products of saucedemo.com.
+     */
+    public static final List<Product> STANDARD_PRODUCTS = List.of(
+            new Product(4, "Sauce Labs Backpack",
+                    "carry.allTheThings() with the sleek, streamlined Sly Pack that melds uncompromising style with unequaled laptop and tablet protection.",
+                    2999),
+            new Product(0, "Sauce Labs Bike Light",
+                    "A red light isn't the desired state in testing but it sure helps when riding your bike at night. Water-resistant with 3 lighting modes, 1 AAA battery included.",
+                    999),
+            new Product(1, "Sauce Labs Bolt T-Shirt",
+                    "Get your testing superhero on with the Sauce Labs bolt T-shirt. From American Apparel, 100% ringspun combed cotton, heather gray with red bolt.",
+                    1599),
+            new Product(5, "Sauce Labs Fleece Jacket",
+                    "It's not every day that you come across a midweight quarter-zip fleece jacket capable of handling everything from a relaxing day outdoors to a busy day at the office.",
+                    4999),
+            new Product(2, "Sauce Labs Onesie",
+                    "Rib snap infant onesie for the junior automation engineer in development. Reinforced 3-snap bottom closure, two-needle hemmed sleeved and bottom won't unravel.",
+                    799),
+            new Product(3, "Test.allTheThings() T-Shirt (Red)",
+                    "This classic Sauce Labs t-shirt is perfect to wear when cozying up to your keyboard to automate a few tests. Super-soft and comfy ringspun combed cotton.",
+                    1599)
+    );
+
+    private SwagLabsCatalog() {
+    }
+
+    /**
+     * Builds a catalog of the given size: the standard products followed by generated ones.
+     * Generated products are named "Sauce Labs Item NNNNN" and priced between $10.00 and $40.00,
+     * so the first product of every sort order stays the same as on saucedemo.com.
+     *
+     * @param size The number of products, at least the number of standard products.
+     * @return The products of the catalog.
+     * @throws IllegalArgumentException if the size is smaller than the standard catalog.
+     */
+    public static List<Product> ofSize(int size) {
+        if (size < STANDARD_PRODUCTS.size()) {
+            throw new IllegalArgumentException("Catalog size must be at least " + STANDARD_PRODUCTS.size() + ": " + size);
+        }
+        List<Product> products = new ArrayList<>(STANDARD_PRODUCTS);
+        for (int id = STANDARD_PRODUCTS.size(); id < size; id++) {
+            products.add(new Product(id, String.format("Sauce Labs Item %05d", id),
+                    "A generated product for large catalog runs against the Swag Labs stand-in.",
+                    1000 + (id * 37L) % 3000));
+        }
+        return products;
+    }
+
+    /**
+     * Finds a standard product by its displayed name.
+     *
+     * @param name The product name, e.g. "Sauce Labs Backpack".
+     * @return The product, or empty if saucedemo.com does not sell it.
+     */
+    public static Optional<Product> findByName(String name) {
+        return STANDARD_PRODUCTS.stream()
+                .filter(product -> product.name().equals(name))
+                .findFirst();
+    }
+}
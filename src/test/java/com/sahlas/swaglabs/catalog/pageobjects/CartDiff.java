@@ -0,0 +1,36 @@
+package com.sahlas.swaglabs.catalog.pageobjects;
+
+import java.util.List;
+
+/**
+ * The difference between the expected and the actual contents of a cart.
+ *
+ * @param missing    Expected line items with no cart line of the same product name.
+ * @param extra      Cart lines that were not expected.
+ * @param mismatched Lines present in both whose quantity or price differ.
+ */
+public record CartDiff(List<CheckoutLineItem> missing, List<CheckoutLineItem> extra, List<Mismatch> mismatched) {
+
+    /**
+     * An expected line item and the cart line found for the same product.
+     */
+    public record Mismatch(CheckoutLineItem expected, CheckoutLineItem actual) {
+    }
+
+    /**
+     * Checks whether the cart matched exactly.
+     *
+     * @return true if nothing is missing, extra or mismatched.
+     */
+    public boolean isEmpty() {
+        return missing.isEmpty() && extra.isEmpty() && mismatched.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "cart matches";
+        }
+        return "missing=" + missing + ", extra=" + extra + ", mismatched=" + mismatched;
+    }
+}
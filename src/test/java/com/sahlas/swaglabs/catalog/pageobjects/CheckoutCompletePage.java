@@ -2,16 +2,19 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 
 import com.microsoft.playwright.Page;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.qameta.allure.Step;
 
+import java.util.Map;
+
 public class CheckoutCompletePage {
     static final Dotenv dotenv = Dotenv.configure()
             .ignoreIfMissing()
             .load();
     private static final String CHECKOUT_COMPLETE_CONFIRMATION_MESSAGE = dotenv.get("CHECKOUT_COMPLETE_CONFIRMATION_MESSAGE", "Checkout: Complete!");
-    private static final String CHECKOUT_COMPLETE_PAGE_URL = dotenv.get("CHECKOUT_COMPLETE_PAGE_URL", "https://www.saucedemo.com/checkout-complete.html");
+    private static final String CHECKOUT_COMPLETE_PAGE_URL = SwagLabsUrls.url("CHECKOUT_COMPLETE_PAGE_URL", "checkout-complete.html");
     private static final String CHECKOUT_COMPLETE_PAGE_TITLE = dotenv.get("CHECKOUT_COMPLETE_PAGE_TITLE", "Checkout: Complete!");
     private final Page page;
 
@@ -25,8 +28,20 @@ public class CheckoutCompletePage {
     @Step("Get Order Confirmation Message")
     public boolean getOrderConfirmationMessage() {
         // Get the order confirmation message from the checkout complete page
-        String orderConfirmationMessage = page.getByTestId("complete-header").textContent();
+        return checkOrderConfirmationMessage(page.getByTestId("complete-header").textContent());
+    }
+
+    /**
+     * Check the order confirmation message read by {@link #snapshot()}.
+     *
+     * @param snapshot The checkout complete snapshot.
+     * @return true if the message matches the expected confirmation message, false otherwise.
+     */
+    public boolean checkOrderConfirmationMessage(CheckoutCompleteSnapshot snapshot) {
+        return checkOrderConfirmationMessage(snapshot.header());
+    }
 
+    private boolean checkOrderConfirmationMessage(String orderConfirmationMessage) {
         boolean isMessageCorrect = orderConfirmationMessage.equals(CHECKOUT_COMPLETE_CONFIRMATION_MESSAGE);
         if (isMessageCorrect) {
             System.out.println("Order confirmation message is correct: " + orderConfirmationMessage);
@@ -47,7 +62,20 @@ public class CheckoutCompletePage {
     @Step("Check the title of the checkout complete page")
     public boolean checkPageTitle() {
         // Extract the title text from the page element
-        String title = page.getByTestId("title").textContent();
+        return checkPageTitle(page.getByTestId("title").textContent());
+    }
+
+    /**
+     * Check the title of the checkout complete page read by {@link #snapshot()}.
+     *
+     * @param snapshot The checkout complete snapshot.
+     * @return true if it matches the expected title, false otherwise.
+     */
+    public boolean checkPageTitle(CheckoutCompleteSnapshot snapshot) {
+        return checkPageTitle(snapshot.title());
+    }
+
+    private boolean checkPageTitle(String title) {
         boolean isTitleCorrect = title.equals(CHECKOUT_COMPLETE_PAGE_TITLE);
         if (isTitleCorrect) {
             System.out.println("Checkout complete page title is correct: " + title);
@@ -59,6 +87,27 @@ public class CheckoutCompletePage {
         return isTitleCorrect;
     }
 
+    /**
+     * Reads the title and confirmation message of the checkout complete page in a single in-page evaluation,
+     * once the confirmation is rendered.
+     *
+     * @return The checkout complete snapshot.
+     */
+    @Step("Read the checkout confirmation")
+    public CheckoutCompleteSnapshot snapshot() {
+        // page.evaluate does not wait, so wait for the confirmation text to be rendered first
+        page.getByTestId("complete-text").waitFor();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fields = (Map<String, Object>) page.evaluate("() => {"
+                + " const text = testId => document.querySelector(`[data-test=\"${testId}\"]`)?.textContent ?? '';"
+                + " return { title: text('title'), header: text('complete-header'), text: text('complete-text') };"
+                + "}");
+        return new CheckoutCompleteSnapshot(
+                (String) fields.get("title"),
+                (String) fields.get("header"),
+                (String) fields.get("text"));
+    }
+
     public boolean checkPageUrl() {
         // Get the current URL of the page
         String currentUrl = page.url();
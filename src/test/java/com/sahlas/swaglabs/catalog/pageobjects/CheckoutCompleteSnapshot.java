@@ -0,0 +1,11 @@
+package com.sahlas.swaglabs.catalog.pageobjects;
+
+/**
+ * Everything verifiable on the checkout complete page, read in one in-page evaluation.
+ *
+ * @param title  The page title, e.g. "Checkout: Complete!".
+ * @param header The confirmation header, e.g. "Thank you for your order!".
+ * @param text   The confirmation text below the header.
+ */
+public record CheckoutCompleteSnapshot(String title, String header, String text) {
+}
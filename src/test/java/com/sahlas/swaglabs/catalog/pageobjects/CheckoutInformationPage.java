@@ -2,6 +2,7 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 
 import com.microsoft.playwright.Page;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.cucumber.datatable.DataTable;
 import io.github.cdimascio.dotenv.Dotenv;
@@ -20,7 +21,7 @@ public class CheckoutInformationPage {
             .ignoreIfMissing()
             .load();
     private static final String CHECK_OUT_INFORMATION_PAGE_TITLE = dotenv.get("CHECKOUT_INFORMATION_PAGE_TITLE", "Checkout: Your Information");
-    private static final String CHECKOUT_INFORMATION_PAGE_URL = dotenv.get("CHECKOUT_INFORMATION_PAGE_URL", "https://www.saucedemo.com/");
+    private static final String CHECKOUT_INFORMATION_PAGE_URL = SwagLabsUrls.url("CHECKOUT_INFORMATION_PAGE_URL", "");
     private final Page page;
 
     /**
@@ -1,5 +1,11 @@
 package com.sahlas.swaglabs.catalog.pageobjects;
 
-//public record CheckoutLineItem(String productName, int quantity, Double price) { }
-public record CheckoutLineItem(String productName, int quantity, String price) {
-}
\ No newline at end of file
+/**
+ * A line of the cart or the checkout overview.
+ *
+ * @param productName The product name.
+ * @param quantity    The quantity ordered.
+ * @param price       The displayed price of the line, in exact cents.
+ */
+public record CheckoutLineItem(String productName, int quantity, Money price) {
+}
@@ -3,6 +3,7 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.cucumber.datatable.DataTable;
 import io.github.cdimascio.dotenv.Dotenv;
@@ -10,6 +11,7 @@ import io.qameta.allure.Step;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,7 +20,7 @@ public class CheckoutOverviewPage {
             .ignoreIfMissing()
             .load();
     private static final String CHECKOUT_OVERVIEW_PAGE_TITLE = dotenv.get("CHECKOUT_OVERVIEW_PAGE_TITLE", "Checkout: Overview");
-    private static final String CHECKOUT_OVERVIEW_PAGE_URL = dotenv.get("CHECKOUT_OVERVIEW_PAGE_URL", "https://www.saucedemo.com/checkout-step-two.html");
+    private static final String CHECKOUT_OVERVIEW_PAGE_URL = SwagLabsUrls.url("CHECKOUT_OVERVIEW_PAGE_URL", "checkout-step-two.html");
     private final Page page;
 
     public CheckoutOverviewPage(Page page) {
@@ -34,7 +36,20 @@ public class CheckoutOverviewPage {
     @Step("Check the title of the checkout overview page")
     public boolean checkTitle() {
         // Get the title text from the page element
-        String title = page.getByTestId("title").textContent();
+        return checkTitle(page.getByTestId("title").textContent());
+    }
+
+    /**
+     * Check the title of the checkout overview page read by {@link #snapshot()}.
+     *
+     * @param snapshot The checkout overview snapshot.
+     * @return true if the title matches "Checkout: Overview", false otherwise.
+     */
+    public boolean checkTitle(CheckoutOverviewSnapshot snapshot) {
+        return checkTitle(snapshot.title());
+    }
+
+    private boolean checkTitle(String title) {
         boolean isTitleCorrect = title.equals(CHECKOUT_OVERVIEW_PAGE_TITLE);
         if (isTitleCorrect) {
             System.out.println("Checkout overview page title is correct: " + title);
@@ -118,6 +133,24 @@ public class CheckoutOverviewPage {
         return allNamesPresent;
     }
 
+    /**
+     * Verify that the overview read by {@link #snapshot()} lists every expected product.
+     *
+     * @param snapshot       The checkout overview snapshot.
+     * @param productsInCart A DataTable containing the expected product names.
+     * @return true if all expected product names are present, false otherwise.
+     */
+    public boolean verifyCartContents(CheckoutOverviewSnapshot snapshot, DataTable productsInCart) {
+        List<String> expectedNames = productsInCart.asMaps(String.class, String.class).stream()
+                .map(product -> product.get("product"))
+                .toList();
+        boolean allNamesPresent = snapshot.productNames().containsAll(expectedNames);
+        System.out.println(allNamesPresent
+                ? "All product names are present in the cart."
+                : "Not all product names are present in the cart: " + snapshot.productNames());
+        return allNamesPresent;
+    }
+
     /**
      * Get the subtotal price of the items in the cart.
      * This method captures a screenshot of the subtotal price for verification purposes.
@@ -149,6 +182,44 @@ public class CheckoutOverviewPage {
         ScreenshotManager.takeScreenshot(page, "cancel-button-clicked");
     }
 
+    /**
+     * Reads the title, line items, subtotal, tax and total of the overview page in a single in-page evaluation,
+     * once the total is rendered.
+     *
+     * @return The checkout overview snapshot, with money values in exact cents.
+     */
+    @Step("Read the checkout overview")
+    public CheckoutOverviewSnapshot snapshot() {
+        // page.evaluate does not wait, so wait for the last part of the summary to be rendered first
+        page.getByTestId("total-label").waitFor();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fields = (Map<String, Object>) page.evaluate("() => {"
+                + " const text = (root, testId) => root.querySelector(`[data-test=\"${testId}\"]`)?.textContent ?? '';"
+                + " const items = [...document.querySelectorAll('[data-test=\"cart-list\"] [data-test=\"inventory-item\"]')];"
+                + " return {"
+                + "   title: text(document, 'title'),"
+                + "   items: items.map(item => ({ name: text(item, 'inventory-item-name'),"
+                + "     quantity: text(item, 'item-quantity'), price: text(item, 'inventory-item-price') })),"
+                + "   subtotal: text(document, 'subtotal-label'),"
+                + "   tax: text(document, 'tax-label'),"
+                + "   total: text(document, 'total-label')"
+                + " };"
+                + "}");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> items = (List<Map<String, Object>>) fields.get("items");
+        return new CheckoutOverviewSnapshot(
+                (String) fields.get("title"),
+                items.stream()
+                        .map(item -> new CheckoutLineItem(
+                                ((String) item.get("name")).trim(),
+                                Integer.parseInt(((String) item.get("quantity")).trim()),
+                                Money.parse((String) item.get("price"))))
+                        .toList(),
+                Money.parse((String) fields.get("subtotal")),
+                Money.parse((String) fields.get("tax")),
+                Money.parse((String) fields.get("total")));
+    }
+
     public boolean checkPageUrl() {
         // Get the current URL of the page
         String url = page.url();
@@ -0,0 +1,25 @@
+package com.sahlas.swaglabs.catalog.pageobjects;
+
+import java.util.List;
+
+/**
+ * Everything verifiable on the checkout overview page, read in one in-page evaluation.
+ *
+ * @param title     The page title, e.g. "Checkout: Overview".
+ * @param lineItems The items being ordered, in display order.
+ * @param subtotal  The item total.
+ * @param tax       The tax.
+ * @param total     The total including tax.
+ */
+public record CheckoutOverviewSnapshot(String title, List<CheckoutLineItem> lineItems, Money subtotal, Money tax,
+                                       Money total) {
+
+    /**
+     * Retrieves the names of the items being ordered.
+     *
+     * @return The product names in display order.
+     */
+    public List<String> productNames() {
+        return lineItems.stream().map(CheckoutLineItem::productName).toList();
+    }
+}
@@ -3,7 +3,9 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.options.AriaRole;
 import com.sahlas.domain.User;
+import com.sahlas.fixtures.NavigationTiming;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.qameta.allure.Step;
@@ -17,7 +19,7 @@ public class LoginPage {
     static final Dotenv dotenv = Dotenv.configure()
             .ignoreIfMissing()
             .load();
-    private static final String URL = dotenv.get("URL", "https://www.saucedemo.com/");
+    private static final String URL = SwagLabsUrls.url("URL", "");
     private final Page page;
 
     /**
@@ -31,7 +33,8 @@ public class LoginPage {
 
     /**
      * Logs in a user using the provided username and password.
-     * Captures a screenshot of the login page before clicking the login button.
+     * Captures a screenshot of the login page before clicking the login button,
+     * and the navigation timing of the page the login leads to.
      *
      * @param user The User object containing the username and password.
      */
@@ -42,6 +45,10 @@ public class LoginPage {
         ScreenshotManager.takeScreenshot(page, "login-page");
         page.getByRole(AriaRole.BUTTON,
                 new Page.GetByRoleOptions().setName("Login")).click(null);
+        // Wait for the inventory page, or the error of a refused login, before capturing the current document;
+        // the login page is not captured twice
+        page.getByTestId("inventory-item").or(page.getByTestId("error")).first().waitFor();
+        NavigationTiming.capture(page);
     }
 
     /**
@@ -72,11 +79,12 @@ public class LoginPage {
 
     /**
      * Navigates to the home page of the application.
-     * Captures a screenshot after navigation.
+     * Captures the navigation timing and a screenshot after navigation.
      */
     @Step("Open the home page")
     public void openHomePage() {
         page.navigate(URL);
+        NavigationTiming.capture(page);
         System.out.println(URL);
         ScreenshotManager.takeScreenshot(page, "home-page");
     }
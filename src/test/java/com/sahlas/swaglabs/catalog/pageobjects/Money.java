@@ -0,0 +1,56 @@
+package com.sahlas.swaglabs.catalog.pageobjects;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An amount of money in exact cents, as displayed by Swag Labs (e.g. "$29.99" or "Item total: $32.39").
+ *
+ * @param cents The amount in cents.
+ */
+public record Money(long cents) {
+    private static final Pattern AMOUNT = Pattern.compile("\\$\\s*(\\d+)(?:\\.(\\d{1,2}))?");
+
+    /**
+     * Parses the first dollar amount in a text.
+     *
+     * @param text The displayed text, such as "$29.99" or "Tax: $2.59".
+     * @return The amount.
+     * @throws IllegalArgumentException if the text contains no dollar amount.
+     */
+    public static Money parse(String text) {
+        Matcher matcher = AMOUNT.matcher(text == null ? "" : text);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("No dollar amount in: " + text);
+        }
+        String fraction = matcher.group(2) == null ? "00" : (matcher.group(2) + "0").substring(0, 2);
+        return new Money(Long.parseLong(matcher.group(1)) * 100 + Long.parseLong(fraction));
+    }
+
+    /**
+     * Converts a dollar value, such as a Cucumber {double} parameter, rounding to the nearest cent.
+     *
+     * @param dollars The amount in dollars.
+     * @return The amount.
+     */
+    public static Money ofDollars(double dollars) {
+        return new Money(BigDecimal.valueOf(dollars).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Adds two amounts.
+     *
+     * @param other The amount to add.
+     * @return The sum.
+     */
+    public Money plus(Money other) {
+        return new Money(cents + other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("$%d.%02d", cents / 100, cents % 100);
+    }
+}
@@ -3,15 +3,18 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.qameta.allure.Step;
 
+import java.util.Map;
+
 public class ProductDetailsPage {
     static final Dotenv dotenv = Dotenv.configure()
             .ignoreIfMissing()
             .load();
-    private static final String PRODUCT_DETAILS_PAGE_URL = dotenv.get("PRODUCT_DETAILS_PAGE_URL", "https://www.saucedemo.com/inventory-details.html");
+    private static final String PRODUCT_DETAILS_PAGE_URL = SwagLabsUrls.url("PRODUCT_DETAILS_PAGE_URL", "inventory-details.html");
     private static final String PRODUCT_DETAILS_PAGE_TITLE = dotenv.get("PRODUCT_DETAILS_PAGE_TITLE", "Swag Labs");
     private final Page page;
 
@@ -56,6 +59,37 @@ public class ProductDetailsPage {
         return page.getByTestId("inventory-item-desc").textContent(); // Placeholder return value
     }
 
+    /**
+     * Reads the header, name, description, price and image of the product in a single in-page evaluation,
+     * once the price is rendered.
+     *
+     * @return The product details snapshot, with the price in exact cents.
+     */
+    @Step("Read the product details")
+    public ProductDetailsSnapshot snapshot() {
+        // page.evaluate does not wait, so wait for the product's price to be rendered first
+        page.getByTestId("inventory-item-price").waitFor();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fields = (Map<String, Object>) page.evaluate("() => {"
+                + " const item = document.querySelector('[data-test=\"inventory-item\"]') ?? document;"
+                + " const text = testId => item.querySelector(`[data-test=\"${testId}\"]`)?.textContent ?? '';"
+                + " const image = item.querySelector('img');"
+                + " return {"
+                + "   appLogo: document.querySelector('.app_logo')?.textContent ?? '',"
+                + "   name: text('inventory-item-name'),"
+                + "   description: text('inventory-item-desc'),"
+                + "   price: text('inventory-item-price'),"
+                + "   imageVisible: !!image && image.getBoundingClientRect().width > 0"
+                + " };"
+                + "}");
+        return new ProductDetailsSnapshot(
+                (String) fields.get("appLogo"),
+                (String) fields.get("name"),
+                (String) fields.get("description"),
+                Money.parse((String) fields.get("price")),
+                (Boolean) fields.get("imageVisible"));
+    }
+
     /**
      * Check if the page URL is correct.
      *
@@ -76,7 +110,20 @@ public class ProductDetailsPage {
     @Step("Check if the page title is correct")
     public boolean checkTitle() {
         // Check if the page title identifiable by the class .app_log matches the expected product details page value
-        String appLogo = page.locator(".app_logo").textContent();
+        return checkTitle(page.locator(".app_logo").textContent());
+    }
+
+    /**
+     * Check the product details page title read by {@link #snapshot()}.
+     *
+     * @param snapshot The product details snapshot.
+     * @return true if the title matches the expected product details page title, false otherwise.
+     */
+    public boolean checkTitle(ProductDetailsSnapshot snapshot) {
+        return checkTitle(snapshot.appLogo());
+    }
+
+    private boolean checkTitle(String appLogo) {
         if (appLogo == null || appLogo.isEmpty()) {
             System.err.println("App logo is not found on the page.");
             return false;
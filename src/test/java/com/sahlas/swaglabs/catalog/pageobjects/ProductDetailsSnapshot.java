@@ -0,0 +1,14 @@
+package com.sahlas.swaglabs.catalog.pageobjects;
+
+/**
+ * Everything verifiable on the product details page, read in one in-page evaluation.
+ *
+ * @param appLogo      The header text, "Swag Labs".
+ * @param name         The product name.
+ * @param description  The product description.
+ * @param price        The product price.
+ * @param imageVisible Whether the product image is rendered.
+ */
+public record ProductDetailsSnapshot(String appLogo, String name, String description, Money price,
+                                     boolean imageVisible) {
+}
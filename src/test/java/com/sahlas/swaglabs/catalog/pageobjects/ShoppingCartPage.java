@@ -2,20 +2,25 @@ package com.sahlas.swaglabs.catalog.pageobjects;
 
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
+import com.sahlas.fixtures.NavigationTiming;
 import com.sahlas.fixtures.ScreenshotManager;
+import com.sahlas.fixtures.SwagLabsUrls;
 import com.sahlas.fixtures.TakesFinalScreenshot;
 import io.cucumber.datatable.DataTable;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.qameta.allure.Step;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ShoppingCartPage {
 
     static final Dotenv dotenv = Dotenv.configure()
             .ignoreIfMissing()
             .load();
-    private static final String SHOPPING_CART_PAGE_URL = dotenv.get("SHOPPING_CART_PAGE_URL", "https://www.saucedemo.com/cart.html");
+    private static final String SHOPPING_CART_PAGE_URL = SwagLabsUrls.url("SHOPPING_CART_PAGE_URL", "cart.html");
     private static final String SHOPPING_CART_PAGE_TITLE = dotenv.get("SHOPPING_CART_TITLE", "Your Cart");
     private final Page page;
 
@@ -26,12 +31,13 @@ public class ShoppingCartPage {
 
     /**
      * Navigates to the shopping cart page using the configured URL.
-     * This method uses Playwright's page.navigate() to load the shopping cart page.
+     * This method uses Playwright's page.navigate() to load the shopping cart page and captures its navigation timing.
      */
     @Step("Open shopping cart page")
     public void openShoppingCartPage() {
         // Navigate to the shopping cart page
         page.navigate(SHOPPING_CART_PAGE_URL);
+        NavigationTiming.capture(page);
     }
 
     @Step("Get the title of the shopping cart page")
@@ -92,25 +98,28 @@ public class ShoppingCartPage {
 
     /**
      * Retrieves the number of items currently in the shopping cart by reading the cart badge.
-     * This method checks for the visibility of the shopping cart badge element and extracts
-     * the item count from its text content. Screenshots are taken for both success and failure cases.
+     * The badge is read without waiting for it, since an empty cart has no badge. A screenshot is taken
+     * when the badge is absent.
      *
-     * @return int The number of items in the cart. Returns 0 if the cart badge is not visible
+     * @return int The number of items in the cart. Returns 0 if the cart badge is absent or empty
      * (indicating an empty cart or UI issue).
      */
     @Step("Get cart count")
     public int getCartCount() {
-        // First check to see if the shopping cart badge is present
-        if (!page.getByTestId("shopping-cart-badge").isVisible()) {
-            // Cart badge not visible - likely means cart is empty or there's a UI issue
+        // An absent badge yields no text at all, rather than waiting for the element to appear
+        String badge = page.getByTestId("shopping-cart-badge").allTextContents().stream()
+                .map(String::trim)
+                .filter(text -> !text.isEmpty())
+                .findFirst()
+                .orElse("");
+        if (badge.isEmpty()) {
+            // Cart badge not shown - likely means cart is empty or there's a UI issue
             System.out.println("Shopping cart icon is not visible");
             ScreenshotManager.takeScreenshot(page, "shopping-cart-icon-not-visible");
             return 0; // Return "0" if the cart icon is not visible
-        } else {
-            // Cart badge is visible - extract and parse the item count
-            System.out.println("Shopping cart icon is visible");
-            return Integer.parseInt(page.getByTestId("shopping-cart-badge").textContent());
         }
+        System.out.println("Shopping cart icon is visible");
+        return Integer.parseInt(badge);
     }
 
     /**
@@ -125,63 +134,81 @@ public class ShoppingCartPage {
      */
     @Step("verify cart contents")
     public boolean verifyCartContents(DataTable productTable) {
+        return diffCartContents(productTable).isEmpty();
+    }
+
+    /**
+     * Compares the shopping cart contents with the expected products from the DataTable.
+     * The cart is read once, and each expected row is matched to the cart line of the same product name.
+     *
+     * @param productTable DataTable containing expected product information with columns:
+     *                     "product" (product name), "quantity" (item quantity), "total" (total price)
+     * @return The missing, extra and mismatched cart lines; empty if the cart matches exactly
+     * @throws IllegalArgumentException if productTable is null or empty
+     */
+    @Step("compare cart contents")
+    public CartDiff diffCartContents(DataTable productTable) {
         // Get the expected products from the DataTable
         if (productTable == null || productTable.isEmpty()) {
             throw new IllegalArgumentException("Product table is empty or null");
         }
+        List<CheckoutLineItem> expectedItems = productTable.asMaps(String.class, String.class).stream()
+                .map(product -> new CheckoutLineItem(
+                        product.get("product").trim(),
+                        Integer.parseInt(product.get("quantity").trim()),
+                        Money.parse(product.get("total"))))
+                .toList();
 
-        // Locate the cart list container and get all inventory items
-        Locator cartList = page.getByTestId("cart-list");
-        List<Locator> subItems = cartList.all().get(0).getByTestId("inventory-item").all();
-
-        // Check if cart is empty
-        if (subItems.isEmpty()) {
-            System.out.println("Cart is empty.");
-            return false;
-        }
-
-        System.out.println("There were: " + subItems.size() + " items found in the cart.");
-
-        // Verify that the number of expected products matches the number of items in cart
-        if (productTable.asMaps(String.class, String.class).size() != subItems.size()) {
-            System.out.println("Product count mismatch: expected " + productTable.asMaps(String.class, String.class).size() + ", found " + subItems.size());
-            return false;
+        // Index the cart lines by product name; a repeated name can only be an unexpected extra line
+        List<CheckoutLineItem> extra = new ArrayList<>();
+        Map<String, CheckoutLineItem> actualByName = new LinkedHashMap<>();
+        for (CheckoutLineItem item : readCartLineItems()) {
+            if (actualByName.putIfAbsent(item.productName(), item) != null) {
+                extra.add(item);
+            }
         }
 
-        // Check if all expected products are present in the cart with correct details
-        return productTable.asMaps(String.class, String.class).stream().allMatch(product -> {
-            // Extract expected product details from DataTable
-            String productName = product.get("product");
-            String quantity = product.get("quantity");
-            String total = product.get("total");
-
-            // Search for matching product in cart items
-            boolean productFound = subItems.stream().anyMatch(item -> {
-                // Extract actual product details from cart item
-                String itemName = trimmedProductTitle(item.getByTestId("inventory-item-name").textContent());
-                String itemQuantity = item.getByTestId("item-quantity").textContent();
-                String itemTotal = item.getByTestId("inventory-item-price").textContent();
-
-                // Log comparison details for debugging
-                System.out.println("Checking expected: " + itemName + ", Quantity: " + itemQuantity + ", Total: " + itemTotal);
-                System.out.println("Checking actual item: " + productName + ", Quantity: " + quantity + ", Total: " + total);
-
-                // Compare all product attributes for exact match
-                return itemName.equals(productName) && itemQuantity.equals(quantity) && itemTotal.equals(total);
-            });
-
-            // Log verification result for each product
-            if (!productFound) {
-                System.out.println("Product not found in cart: " + productName);
-            } else {
-                System.out.println("Product found in cart: " + productName);
+        List<CheckoutLineItem> missing = new ArrayList<>();
+        List<CartDiff.Mismatch> mismatched = new ArrayList<>();
+        for (CheckoutLineItem expected : expectedItems) {
+            CheckoutLineItem actual = actualByName.remove(expected.productName());
+            if (actual == null) {
+                missing.add(expected);
+            } else if (!actual.equals(expected)) {
+                mismatched.add(new CartDiff.Mismatch(expected, actual));
             }
+        }
+        extra.addAll(actualByName.values());
 
-            return productFound;
-        });
+        CartDiff diff = new CartDiff(missing, extra, mismatched);
+        System.out.println("Cart contents compared with " + expectedItems.size() + " expected products: " + diff);
+        return diff;
     }
 
-
+    /**
+     * Reads every line of the shopping cart in a single in-page evaluation, once the cart list is rendered.
+     *
+     * @return The cart lines in display order, with prices in exact cents; empty if the cart is empty
+     */
+    @Step("read cart contents")
+    public List<CheckoutLineItem> readCartLineItems() {
+        // evaluateAll does not wait, so an unrendered cart would read as empty
+        Locator cartList = page.getByTestId("cart-list");
+        cartList.waitFor();
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) cartList
+                .getByTestId("inventory-item")
+                .evaluateAll("items => items.map(item => {"
+                        + " const text = testId => item.querySelector(`[data-test=\"${testId}\"]`)?.textContent ?? '';"
+                        + " return { name: text('inventory-item-name'), quantity: text('item-quantity'), price: text('inventory-item-price') };"
+                        + " })");
+        return rows.stream()
+                .map(row -> new CheckoutLineItem(
+                        trimmedProductTitle((String) row.get("name")),
+                        Integer.parseInt(((String) row.get("quantity")).trim()),
+                        Money.parse((String) row.get("price"))))
+                .toList();
+    }
 
     private String trimmedProductTitle(String value) {
         return value.strip().replaceAll("\u00A0", "");
@@ -5,6 +5,7 @@ Feature: Product Catalog
 
   Sally is an online shopper who wants to choose products to purchase in the catalog.
 
+  @needs-images
   Rule: Customers can view individual product details on the inventory-details page.
 
     Background:
@@ -18,6 +19,7 @@ Feature: Product Catalog
       And the product image for "Sauce Labs Backpack" should be displayed
       Then Sally goes back to the inventory page
 
+  @state-setup
   Rule: Customers should be able to cancel the checkout process from multiple phases of the check out process.
 
     Background:
@@ -47,8 +49,7 @@ Feature: Product Catalog
   Rule: When a customer is ready to move on they will review their shopping cart.
 
     Background:
-      Given Sally logs in
-      And Sally adds the following products to the cart
+      Given Sally logs in with the following products in her cart
         | product                           |
         | Sauce Labs Backpack               |
         | Sauce Labs Bolt T-Shirt           |
@@ -120,8 +121,7 @@ Feature: Product Catalog
   Rule: Customers should be able to continue shopping after adding products to their cart.
 
     Background:
-      Given Sally logs in
-      And Sally adds the following products to the cart
+      Given Sally logs in with the following products in her cart
         | product                           |
         | Sauce Labs Backpack               |
         | Test.allTheThings() T-Shirt (Red) |
@@ -130,6 +130,12 @@ Feature: Product Catalog
       When Sally continues shopping after adding products to her cart
       Then she should be able to view the inventory page and add more products
 
+    # Continue shopping changes the route without loading a document, so the budget applies to opening the page
+    @perf-budget
+    Scenario: The inventory page loads within its budget with products in Sally's cart
+      When Sally opens a browser link to the inventory page
+      Then the inventory page loads within 3000 ms
+
 
   Rule: Customers should be able to remove items from their cart while on the main inventory page.
     Background:
@@ -169,8 +175,7 @@ Feature: Product Catalog
 
   Rule: Customers should be able to view their cart and remove items while on the shopping cart page.
     Background:
-      Given Sally logs in
-      And Sally adds the following products to the cart
+      Given Sally logs in with the following products in her cart
         | product                           |
         | Sauce Labs Backpack               |
         | Sauce Labs Bolt T-Shirt           |
@@ -188,6 +193,11 @@ Feature: Product Catalog
         | Sauce Labs Fleece Jacket          | 1        | $49.99 |
         | Sauce Labs Onesie                 | 1        | $7.99  |
 
+    @perf-budget
+    Scenario: The cart page loads within its budget
+      When Sally views her cart
+      Then the cart page loads within 3000 ms
+
 
   Rule: Customers should be able to sort the inventory items by various criteria.
     Background:
@@ -203,6 +213,7 @@ Feature: Product Catalog
         | Name (A to Z)       | Sauce Labs Backpack               |
         | Name (Z to A)       | Test.allTheThings() T-Shirt (Red) |
 
+  @ui-login
   Rule: Attempts at passing in false or incorrect credentials should result in error message with an explanation.
 
     Scenario Outline: Sally tries to log in with invalid credentials
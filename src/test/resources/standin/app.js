@@ -0,0 +1,256 @@
+// Client-side behaviour of the Swag Labs stand-in. Like saucedemo.com, the session lives in the
+// "session-username" cookie and the cart in localStorage under "cart-contents" as a list of inventory ids.
+(function () {
+    var CART_KEY = 'cart-contents';
+    var PASSWORD = 'secret_sauce';
+    var USERS = ['standard_user', 'locked_out_user', 'problem_user',
+        'performance_glitch_user', 'error_user', 'visual_user'];
+    var SORTS = {
+        az: function (a, b) { return a.name < b.name ? -1 : (a.name > b.name ? 1 : 0); },
+        za: function (a, b) { return a.name < b.name ? 1 : (a.name > b.name ? -1 : 0); },
+        lohi: function (a, b) { return a.price - b.price; },
+        hilo: function (a, b) { return b.price - a.price; }
+    };
+
+    var byId = {};
+    (window.CATALOG || []).forEach(function (product) { byId[product.id] = product; });
+
+    function testId(value) {
+        return '[data-test="' + value + '"]';
+    }
+
+    function slug(name) {
+        return name.toLowerCase().split(' ').join('-');
+    }
+
+    function money(cents) {
+        return '$' + (cents / 100).toFixed(2);
+    }
+
+    function cart() {
+        try {
+            return JSON.parse(localStorage.getItem(CART_KEY)) || [];
+        } catch (e) {
+            return [];
+        }
+    }
+
+    function saveCart(ids) {
+        if (ids.length) {
+            localStorage.setItem(CART_KEY, JSON.stringify(ids));
+        } else {
+            localStorage.removeItem(CART_KEY);
+        }
+        renderBadge();
+    }
+
+    function addToCart(id) {
+        var ids = cart();
+        if (ids.indexOf(id) < 0) {
+            ids.push(id);
+        }
+        saveCart(ids);
+    }
+
+    function removeFromCart(id) {
+        saveCart(cart().filter(function (other) { return other !== id; }));
+    }
+
+    function element(tag, className, test, text) {
+        var node = document.createElement(tag);
+        if (className) {
+            node.className = className;
+        }
+        if (test) {
+            node.setAttribute('data-test', test);
+        }
+        if (text !== undefined) {
+            node.textContent = text;
+        }
+        return node;
+    }
+
+    function go(path) {
+        window.location.href = path;
+    }
+
+    function renderBadge() {
+        var link = document.querySelector(testId('shopping-cart-link'));
+        if (!link) {
+            return;
+        }
+        var badge = link.querySelector(testId('shopping-cart-badge'));
+        var count = cart().length;
+        if (count === 0) {
+            if (badge) {
+                badge.remove();
+            }
+            return;
+        }
+        if (!badge) {
+            badge = element('span', 'shopping_cart_badge', 'shopping-cart-badge');
+            link.appendChild(badge);
+        }
+        badge.textContent = String(count);
+    }
+
+    function showError(message) {
+        var error = document.querySelector(testId('error'));
+        error.textContent = message;
+        error.parentElement.classList.add('error');
+    }
+
+    // Toggles an add/remove button between its two states, keeping the saucedemo data-test naming
+    function renderCartButton(button, product, prefixed) {
+        var inCart = cart().indexOf(product.id) >= 0;
+        var suffix = prefixed ? '-' + slug(product.name) : '';
+        button.textContent = inCart ? 'Remove' : 'Add to cart';
+        button.className = inCart ? 'btn btn_secondary' : 'btn btn_primary';
+        button.setAttribute('data-test', (inCart ? 'remove' : 'add-to-cart') + suffix);
+        button.id = button.getAttribute('data-test');
+    }
+
+    function wireCartButton(button, product, prefixed) {
+        renderCartButton(button, product, prefixed);
+        button.addEventListener('click', function () {
+            if (cart().indexOf(product.id) >= 0) {
+                removeFromCart(product.id);
+            } else {
+                addToCart(product.id);
+            }
+            renderCartButton(button, product, prefixed);
+        });
+    }
+
+    function cartItem(product, withRemove) {
+        var item = element('div', 'cart_item', 'inventory-item');
+        item.appendChild(element('div', 'cart_quantity', 'item-quantity', '1'));
+        var label = element('div', 'cart_item_label');
+        var link = element('a', '', 'item-' + product.id + '-title-link');
+        link.href = '/inventory-item.html?id=' + product.id;
+        link.appendChild(element('div', 'inventory_item_name', 'inventory-item-name', product.name));
+        label.appendChild(link);
+        label.appendChild(element('div', 'inventory_item_desc', 'inventory-item-desc', product.description));
+        var priceBar = element('div', 'item_pricebar');
+        priceBar.appendChild(element('div', 'inventory_item_price', 'inventory-item-price', money(product.price)));
+        if (withRemove) {
+            var remove = element('button', 'btn btn_secondary', 'remove-' + slug(product.name), 'Remove');
+            remove.addEventListener('click', function () {
+                removeFromCart(product.id);
+                item.remove();
+            });
+            priceBar.appendChild(remove);
+        }
+        label.appendChild(priceBar);
+        item.appendChild(label);
+        return item;
+    }
+
+    function cartProducts() {
+        return cart().map(function (id) { return byId[id]; }).filter(Boolean);
+    }
+
+    var pages = {
+        login: function () {
+            document.querySelector(testId('login-button')).addEventListener('click', function (event) {
+                event.preventDefault();
+                var username = document.querySelector(testId('username')).value;
+                var password = document.querySelector(testId('password')).value;
+                if (!username) {
+                    showError('Epic sadface: Username is required');
+                } else if (!password) {
+                    showError('Epic sadface: Password is required');
+                } else if (USERS.indexOf(username) < 0 || password !== PASSWORD) {
+                    showError('Epic sadface: Username and password do not match any user in this service');
+                } else if (username === 'locked_out_user') {
+                    showError('Epic sadface: Sorry, this user has been locked out.');
+                } else {
+                    document.cookie = 'login-error=; path=/; max-age=0';
+                    document.cookie = 'session-username=' + username + '; path=/';
+                    go('/inventory.html');
+                }
+            });
+        },
+        inventory: function () {
+            var list = document.querySelector('.inventory_list');
+            var items = Array.prototype.slice.call(list.querySelectorAll(testId('inventory-item')));
+            items.forEach(function (item) {
+                var product = byId[Number(item.getAttribute('data-id'))];
+                wireCartButton(item.querySelector('button'), product, true);
+            });
+            var select = document.querySelector(testId('product-sort-container'));
+            select.addEventListener('change', function () {
+                var compare = SORTS[select.value];
+                items.sort(function (a, b) {
+                    return compare(byId[Number(a.getAttribute('data-id'))], byId[Number(b.getAttribute('data-id'))]);
+                });
+                items.forEach(function (item) { list.appendChild(item); });
+                document.querySelector(testId('active-option')).textContent = select.options[select.selectedIndex].text;
+            });
+        },
+        item: function () {
+            var details = document.querySelector(testId('inventory-item'));
+            wireCartButton(details.querySelector('button'), byId[Number(details.getAttribute('data-id'))], false);
+            document.querySelector(testId('back-to-products')).addEventListener('click', function () {
+                go('/inventory.html');
+            });
+        },
+        cart: function () {
+            var list = document.querySelector(testId('cart-list'));
+            cartProducts().forEach(function (product) { list.appendChild(cartItem(product, true)); });
+            document.querySelector(testId('continue-shopping')).addEventListener('click', function () {
+                go('/inventory.html');
+            });
+            document.querySelector(testId('checkout')).addEventListener('click', function () {
+                go('/checkout-step-one.html');
+            });
+        },
+        'checkout-information': function () {
+            document.querySelector(testId('continue')).addEventListener('click', function (event) {
+                event.preventDefault();
+                if (!document.querySelector(testId('firstName')).value) {
+                    showError('Error: First Name is required');
+                } else if (!document.querySelector(testId('lastName')).value) {
+                    showError('Error: Last Name is required');
+                } else if (!document.querySelector(testId('postalCode')).value) {
+                    showError('Error: Postal Code is required');
+                } else {
+                    go('/checkout-step-two.html');
+                }
+            });
+            document.querySelector(testId('cancel')).addEventListener('click', function () {
+                go('/cart.html');
+            });
+        },
+        'checkout-overview': function () {
+            var list = document.querySelector(testId('cart-list'));
+            var subtotal = 0;
+            cartProducts().forEach(function (product) {
+                subtotal += product.price;
+                list.appendChild(cartItem(product, false));
+            });
+            var tax = Math.round(subtotal * 0.08);
+            document.querySelector(testId('subtotal-label')).textContent = 'Item total: ' + money(subtotal);
+            document.querySelector(testId('tax-label')).textContent = 'Tax: ' + money(tax);
+            document.querySelector(testId('total-label')).textContent = 'Total: ' + money(subtotal + tax);
+            document.querySelector(testId('finish')).addEventListener('click', function () {
+                saveCart([]);
+                go('/checkout-complete.html');
+            });
+            document.querySelector(testId('cancel')).addEventListener('click', function () {
+                go('/inventory.html');
+            });
+        },
+        'checkout-complete': function () {
+            document.querySelector(testId('back-to-products')).addEventListener('click', function () {
+                go('/inventory.html');
+            });
+        }
+    };
+
+    renderBadge();
+    var page = pages[document.body.getAttribute('data-page')];
+    if (page) {
+        page();
+    }
+})();
@@ -1,23 +1,18 @@
-import logo from './logo.svg';
 import './App.css';
+import VitalsDashboard from './VitalsDashboard';
 
 function App() {
   return (
     <div className="App">
       <header className="App-header">
-        <img src={logo} className="App-logo" alt="logo" />
+        <h1>Swag Labs web vitals</h1>
         <p>
-          Edit <code>src/App.js</code> and save to reload.
+          LCP, CLS and INP of the pages visited by the test scenarios, per run.
         </p>
-        <a
-          className="App-link"
-          href="https://reactjs.org"
-          target="_blank"
-          rel="noopener noreferrer"
-        >
-          Learn React
-        </a>
       </header>
+      <main>
+        <VitalsDashboard />
+      </main>
     </div>
   );
 }
@@ -1,8 +1,41 @@
 import { render, screen } from '@testing-library/react';
 import App from './App';
+import { parseHistory, percentile, summarize } from './vitalsHistory';
 
-test('renders learn react link', () => {
+const HISTORY = [
+  'run,user_type,scenario,page,lcp_ms,cls,inp_ms',
+  '2026-01-01T00:00:00Z,standard_user,Sally views her cart,cart,400,0.0100,',
+  '2026-01-01T00:00:00Z,standard_user,"Sally sorts, then views",inventory,600,0.0000,48',
+  '2026-01-02T00:00:00Z,standard_user,Sally views her cart,cart,500,0.0200,',
+].join('\n');
+
+afterEach(() => {
+  delete global.fetch;
+});
+
+test('renders the p50 and p95 of each page from the run history', async () => {
+  global.fetch = jest.fn(() => Promise.resolve({ ok: true, text: () => Promise.resolve(HISTORY) }));
+  render(<App />);
+  expect(await screen.findAllByText('cart')).toHaveLength(2);
+  expect(screen.getAllByText('500 ms')).toHaveLength(2);
+});
+
+test('reports a missing run history', async () => {
+  global.fetch = jest.fn(() => Promise.resolve({ ok: false, status: 404, statusText: 'Not Found' }));
   render(<App />);
-  const linkElement = screen.getByText(/learn react/i);
-  expect(linkElement).toBeInTheDocument();
+  expect(await screen.findByText(/no web vitals history available/i)).toBeInTheDocument();
+});
+
+test('summarizes the history per page and run', () => {
+  const rows = parseHistory(HISTORY);
+  expect(rows[1].scenario).toBe('Sally sorts, then views');
+  expect(rows[0].inp_ms).toBeNull();
+  expect(percentile([3, 1, 2, null], 50)).toBe(2);
+  const cart = summarize(rows).find(({ page }) => page === 'cart');
+  expect(cart.metrics[0].points.map((point) => point.p95)).toEqual([400, 500]);
+});
+
+test('leaves out the metrics a page has no values for', () => {
+  const cart = summarize(parseHistory(HISTORY)).find(({ page }) => page === 'cart');
+  expect(cart.metrics.map((metric) => metric.label)).toEqual(['LCP', 'CLS']);
 });
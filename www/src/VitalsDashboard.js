@@ -0,0 +1,101 @@
+import { useEffect, useState } from 'react';
+import { parseHistory, summarize, userTypes } from './vitalsHistory';
+
+const HISTORY_URL = `${process.env.PUBLIC_URL}/web-vitals-history.csv`;
+
+function format(value, unit) {
+  if (value === null) {
+    return '–';
+  }
+  return unit === 'ms' ? `${Math.round(value)} ms` : value.toFixed(3);
+}
+
+// A p50 (solid) and p95 (dashed) line over the runs
+function Trend({ points }) {
+  const width = 160;
+  const height = 40;
+  const values = points.flatMap((point) => [point.p50, point.p95]).filter((value) => value !== null);
+  if (values.length === 0) {
+    return null;
+  }
+  const max = Math.max(...values) || 1;
+  const step = points.length > 1 ? width / (points.length - 1) : 0;
+  const line = (key) => points
+    .map((point, index) => (point[key] === null ? null : `${index * step},${height - (point[key] / max) * height}`))
+    .filter((coordinates) => coordinates !== null)
+    .join(' ');
+  return (
+    <svg className="Trend" width={width} height={height} role="img" aria-label="p50 and p95 trend">
+      <polyline className="Trend-p50" points={line('p50')} fill="none" />
+      <polyline className="Trend-p95" points={line('p95')} fill="none" />
+    </svg>
+  );
+}
+
+function VitalsDashboard() {
+  const [rows, setRows] = useState(null);
+  const [error, setError] = useState(null);
+  const [userType, setUserType] = useState('');
+
+  useEffect(() => {
+    fetch(HISTORY_URL)
+      .then((response) => {
+        if (!response.ok) {
+          throw new Error(`${response.status} ${response.statusText}`);
+        }
+        return response.text();
+      })
+      .then((text) => setRows(parseHistory(text)))
+      .catch((reason) => setError(reason.message));
+  }, []);
+
+  if (error) {
+    return <p className="Vitals-message">No web vitals history available ({error}).</p>;
+  }
+  if (rows === null) {
+    return <p className="Vitals-message">Loading web vitals history…</p>;
+  }
+  if (rows.length === 0) {
+    return <p className="Vitals-message">The web vitals history is empty.</p>;
+  }
+
+  const pages = summarize(rows, userType);
+  return (
+    <section className="Vitals">
+      <label>
+        User type{' '}
+        <select value={userType} onChange={(event) => setUserType(event.target.value)}>
+          <option value="">all</option>
+          {userTypes(rows).map((type) => <option key={type} value={type}>{type}</option>)}
+        </select>
+      </label>
+      <table>
+        <thead>
+          <tr>
+            <th>Page</th>
+            <th>Metric</th>
+            <th>p50</th>
+            <th>p95</th>
+            <th>Trend</th>
+          </tr>
+        </thead>
+        <tbody>
+          {pages.flatMap(({ page, metrics }) => metrics.map((metric) => {
+            const latest = metric.points[metric.points.length - 1];
+            return (
+              <tr key={`${page}-${metric.key}`}>
+                <td>{page}</td>
+                <td>{metric.label}</td>
+                <td>{format(latest.p50, metric.unit)}</td>
+                <td>{format(latest.p95, metric.unit)}</td>
+                <td><Trend points={metric.points} /></td>
+              </tr>
+            );
+          }))}
+        </tbody>
+      </table>
+    </section>
+  );
+}
+
+export default VitalsDashboard;
@@ -0,0 +1,89 @@
+// Reads the web vitals run history written by the Java fixtures (one row per run, scenario and page) and
+// summarizes it as p50/p95 trends per metric and page across runs.
+
+export const METRICS = [
+  { key: 'lcp_ms', label: 'LCP', unit: 'ms' },
+  { key: 'cls', label: 'CLS', unit: '' },
+  { key: 'inp_ms', label: 'INP', unit: 'ms' },
+];
+
+function splitCsvLine(line) {
+  const fields = [];
+  let field = '';
+  let quoted = false;
+  for (let i = 0; i < line.length; i++) {
+    const char = line[i];
+    if (quoted) {
+      if (char === '"' && line[i + 1] === '"') {
+        field += '"';
+        i++;
+      } else if (char === '"') {
+        quoted = false;
+      } else {
+        field += char;
+      }
+    } else if (char === '"') {
+      quoted = true;
+    } else if (char === ',') {
+      fields.push(field);
+      field = '';
+    } else {
+      field += char;
+    }
+  }
+  fields.push(field);
+  return fields;
+}
+
+export function parseHistory(text) {
+  const lines = text.split(/\r?\n/).filter((line) => line.trim() !== '');
+  if (lines.length === 0) {
+    return [];
+  }
+  const header = splitCsvLine(lines[0]);
+  return lines.slice(1).map((line) => {
+    const fields = splitCsvLine(line);
+    const row = {};
+    header.forEach((name, index) => {
+      const value = fields[index] ?? '';
+      row[name] = METRICS.some((metric) => metric.key === name)
+        ? (value === '' ? null : Number(value))
+        : value;
+    });
+    return row;
+  });
+}
+
+// Nearest-rank percentile of the non-empty values
+export function percentile(values, p) {
+  const sorted = values.filter((value) => value !== null && !Number.isNaN(value)).sort((a, b) => a - b);
+  if (sorted.length === 0) {
+    return null;
+  }
+  const rank = Math.ceil((p / 100) * sorted.length);
+  return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+}
+
+// Runs are ISO timestamps by default, so they sort chronologically; the last maxRuns runs are kept. Metrics without
+// any value for a page (e.g. CLS and INP of runs in browsers other than Chromium) are left out.
+export function summarize(rows, userType, maxRuns = 20) {
+  const selected = rows.filter((row) => !userType || row.user_type === userType);
+  const runs = [...new Set(selected.map((row) => row.run))].sort().slice(-maxRuns);
+  const pages = [...new Set(selected.map((row) => row.page))].sort();
+  return pages.map((page) => ({
+    page,
+    metrics: METRICS.map((metric) => ({
+      ...metric,
+      points: runs.map((run) => {
+        const values = selected
+          .filter((row) => row.run === run && row.page === page)
+          .map((row) => row[metric.key]);
+        return { run, p50: percentile(values, 50), p95: percentile(values, 95) };
+      }),
+    })).filter((metric) => metric.points.some((point) => point.p50 !== null)),
+  })).filter(({ metrics }) => metrics.length > 0);
+}
+
+export function userTypes(rows) {
+  return [...new Set(rows.map((row) => row.user_type))].sort();
+}